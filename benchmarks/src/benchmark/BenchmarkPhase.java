@@ -0,0 +1,36 @@
+package benchmark;
+
+import game.GamePhase;
+
+/**
+ * Parts of the engine that can be measured by the benchmarks: every phase of a month (in the
+ * order the game plays them), the Reader and the Writer
+ */
+public enum BenchmarkPhase {
+    UPDATE_DISTRIBUTORS(GamePhase.UPDATE_DISTRIBUTORS),
+    UPDATE_CONSUMERS(GamePhase.UPDATE_CONSUMERS),
+    CREATE_CONTRACTS(GamePhase.CREATE_CONTRACTS),
+    PURGE_PAID_CONTRACTS(GamePhase.PURGE_PAID_CONTRACTS),
+    SIGN_CONTRACTS(GamePhase.SIGN_CONTRACTS),
+    UPDATE_BUDGETS(GamePhase.UPDATE_BUDGETS),
+    PURGE_CANCELED_CONTRACTS(GamePhase.PURGE_CANCELED_CONTRACTS),
+    PURGE_BROKE_PLAYERS(GamePhase.PURGE_BROKE_PLAYERS),
+    UPDATE_PRODUCERS(GamePhase.UPDATE_PRODUCERS),
+    PREPARE_PRODUCERS(GamePhase.PREPARE_PRODUCERS),
+    ASSIGN_PRODUCERS(GamePhase.ASSIGN_PRODUCERS),
+    READ_INPUT(null),
+    WRITE_OUTPUT(null);
+
+    private final GamePhase gamePhase;
+
+    BenchmarkPhase(final GamePhase gamePhase) {
+        this.gamePhase = gamePhase;
+    }
+
+    /**
+     * @return phase of the game that is measured, null for the Reader and the Writer
+     */
+    GamePhase getGamePhase() {
+        return gamePhase;
+    }
+}
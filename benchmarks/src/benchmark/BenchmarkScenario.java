@@ -0,0 +1,203 @@
+package benchmark;
+
+import entities.Consumer;
+import entities.Distributor;
+import entities.EnergyType;
+import entities.EntityFactory;
+import entities.EntityType;
+import entities.Producer;
+import game.DistributorChange;
+import game.MonthlyUpdate;
+import game.ProducerChange;
+import generator.ScenarioGenerator;
+import strategies.EnergyChoiceStrategyType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded synthetic scenario used by the benchmarks. The same size and seed always give the
+ * same entities and monthly updates, and every call creates fresh entities, so a game can be
+ * played on each copy.
+ */
+final class BenchmarkScenario {
+    private static final int MAX_BUDGET = 300;
+    private static final int MIN_INCOME = 10;
+    private static final int MAX_INCOME = 150;
+    private static final int MAX_CONTRACT_LENGTH = 12;
+    private static final int MIN_DISTRIBUTOR_BUDGET = 1000;
+    private static final int MAX_DISTRIBUTOR_BUDGET = 100000;
+    private static final int MAX_INFRASTRUCTURE_COST = 400;
+    private static final int MIN_ENERGY = 500;
+    private static final int MAX_ENERGY = 6000;
+    private static final int MAX_PRICE_CENTS = 10;
+    private static final double CENTS = 100.0;
+    private static final int CHANGES_PER_MONTH = 3;
+    private final int consumers;
+    private final int distributors;
+    private final int producers;
+    private final int turns;
+    private final long seed;
+
+    /**
+     * @param consumers    number of initial consumers
+     * @param distributors number of distributors
+     * @param producers    number of producers
+     * @param turns        number of months
+     * @param seed         seed of all the random values
+     */
+    BenchmarkScenario(final int consumers, final int distributors, final int producers,
+                      final int turns, final long seed) {
+        this.consumers = consumers;
+        this.distributors = distributors;
+        this.producers = producers;
+        this.turns = turns;
+        this.seed = seed;
+    }
+
+    /**
+     * @return number of months
+     */
+    int getTurns() {
+        return turns;
+    }
+
+    /**
+     * @return short description of the sizes
+     */
+    String describe() {
+        return consumers + "c/" + distributors + "d/" + producers + "p/" + turns + "t";
+    }
+
+    /**
+     * @return fresh initial consumers
+     */
+    List<Consumer> createConsumers() {
+        Random random = new Random(seed);
+        List<Consumer> result = new ArrayList<>(consumers);
+        for (int i = 0; i < consumers; ++i) {
+            result.add(createConsumer(random, i));
+        }
+        return result;
+    }
+
+    /**
+     * @return fresh distributors
+     */
+    List<Distributor> createDistributors() {
+        EntityFactory factory = EntityFactory.getInstance();
+        List<Distributor> result = new ArrayList<>(distributors);
+        for (Map<String, Object> fields : distributorFields()) {
+            result.add((Distributor) factory.createEntity(EntityType.DISTRIBUTOR, fields));
+        }
+        return result;
+    }
+
+    /**
+     * @return fresh producers
+     */
+    List<Producer> createProducers() {
+        EntityFactory factory = EntityFactory.getInstance();
+        List<Producer> result = new ArrayList<>(producers);
+        for (Map<String, Object> fields : producerFields()) {
+            result.add((Producer) factory.createEntity(EntityType.PRODUCER, fields));
+        }
+        return result;
+    }
+
+    /**
+     * @return input fields of every distributor, in the order of the input format
+     */
+    private List<Map<String, Object>> distributorFields() {
+        Random random = new Random(seed + 1);
+        EnergyChoiceStrategyType[] strategies = EnergyChoiceStrategyType.values();
+        List<Map<String, Object>> result = new ArrayList<>(distributors);
+        for (int i = 0; i < distributors; ++i) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("id", (long) i);
+            fields.put("contractLength", (long) (1 + random.nextInt(MAX_CONTRACT_LENGTH)));
+            fields.put("initialBudget",
+                    (long) (MIN_DISTRIBUTOR_BUDGET + random.nextInt(MAX_DISTRIBUTOR_BUDGET)));
+            fields.put("initialInfrastructureCost",
+                    (long) random.nextInt(MAX_INFRASTRUCTURE_COST));
+            fields.put("energyNeededKW", (long) (MIN_ENERGY + random.nextInt(MAX_ENERGY)));
+            fields.put("producerStrategy",
+                    strategies[random.nextInt(strategies.length)].toString());
+            result.add(fields);
+        }
+        return result;
+    }
+
+    /**
+     * @return input fields of every producer, in the order of the input format
+     */
+    private List<Map<String, Object>> producerFields() {
+        Random random = new Random(seed + 2);
+        EnergyType[] types = EnergyType.values();
+        List<Map<String, Object>> result = new ArrayList<>(producers);
+        for (int i = 0; i < producers; ++i) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("id", (long) i);
+            fields.put("energyType", types[random.nextInt(types.length)].toString());
+            fields.put("maxDistributors",
+                    (long) (1 + random.nextInt(Math.max(1, distributors))));
+            fields.put("priceKW", (1 + random.nextInt(MAX_PRICE_CENTS)) / CENTS);
+            fields.put("energyPerDistributor",
+                    (long) (MIN_ENERGY + random.nextInt(MAX_ENERGY)));
+            result.add(fields);
+        }
+        return result;
+    }
+
+    /**
+     * @return fresh monthly updates, with a few changes of every kind each month
+     */
+    List<MonthlyUpdate> createMonthlyUpdates() {
+        Random random = new Random(seed + 3);
+        List<MonthlyUpdate> result = new ArrayList<>(turns);
+        int nextConsumer = consumers;
+        for (int month = 0; month < turns; ++month) {
+            List<DistributorChange> distributorChanges = new ArrayList<>();
+            List<Consumer> newConsumers = new ArrayList<>();
+            List<ProducerChange> producerChanges = new ArrayList<>();
+            for (int i = 0; i < CHANGES_PER_MONTH; ++i) {
+                distributorChanges.add(new DistributorChange(random.nextInt(distributors),
+                        random.nextInt(MAX_INFRASTRUCTURE_COST)));
+                newConsumers.add(createConsumer(random, nextConsumer++));
+                producerChanges.add(new ProducerChange(random.nextInt(producers),
+                        MIN_ENERGY + random.nextInt(MAX_ENERGY)));
+            }
+            result.add(new MonthlyUpdate(distributorChanges, newConsumers, producerChanges));
+        }
+        return result;
+    }
+
+    /**
+     * Writes an input file of the same sizes, drawn by the scenario generator
+     *
+     * @param file destination
+     * @throws IOException in case of failure when writing
+     */
+    void writeInput(final File file) throws IOException {
+        ScenarioGenerator generator = new ScenarioGenerator();
+        generator.setConsumers(consumers);
+        generator.setDistributors(distributors);
+        generator.setProducers(producers);
+        generator.setTurns(turns);
+        generator.setSeed(seed);
+        generator.setNewConsumers(CHANGES_PER_MONTH);
+        generator.setDistributorChanges(CHANGES_PER_MONTH);
+        generator.setProducerChanges(CHANGES_PER_MONTH);
+        generator.generate(file);
+    }
+
+    private static Consumer createConsumer(final Random random, final int id) {
+        return new Consumer(id, random.nextInt(MAX_BUDGET),
+                MIN_INCOME + random.nextInt(MAX_INCOME - MIN_INCOME));
+    }
+}
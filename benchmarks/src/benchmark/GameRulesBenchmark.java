@@ -0,0 +1,307 @@
+package benchmark;
+
+import entities.ConsumerStoreType;
+import fileio.Reader;
+import fileio.Writer;
+import game.ExecutionMode;
+import game.Game;
+import game.GamePhase;
+import game.MonthlyUpdate;
+import game.PhaseObserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Benchmark harness for the engine. Every phase of GameRules, the Reader and the Writer are
+ * measured on a grid of scenario sizes. An iteration plays a fresh Game on a copy of the
+ * scenario and a PhaseObserver counts only the time and the allocations of the measured phase,
+ * so a phase is always measured in the state the game really runs it in. The allocations are
+ * summed over all the threads, the fork-join workers of the parallel mode included. Warmup
+ * iterations are played first and thrown away; the spread of the iterations is reported as
+ * the standard deviation of their throughputs.
+ * Usage:
+ * GameRulesBenchmark [--consumers=1000,100000] [--distributors=50] [--producers=20]
+ * [--turns=20] [--warmup=3] [--iterations=5] [--phases=SIGN_CONTRACTS,...] [--parallel]
+ * [--store=OBJECTS|TABLE|MAPPED] [--seed=42] [--csv=results.csv]
+ */
+public final class GameRulesBenchmark {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static volatile Object sink;
+    private int[] consumerCounts = {1000, 10000, 100000};
+    private int[] distributorCounts = {50};
+    private int[] producerCounts = {20};
+    private int turns = 20;
+    private int warmupIterations = 3;
+    private int measurementIterations = 5;
+    private long seed = 42;
+    private List<BenchmarkPhase> phases = Arrays.asList(BenchmarkPhase.values());
+    private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+    private ConsumerStoreType storeType = ConsumerStoreType.OBJECTS;
+    private String csvFile = null;
+
+    private GameRulesBenchmark() { }
+
+    /**
+     * Runs the benchmarks and prints one line per scenario and phase
+     *
+     * @param args options of the benchmark, see the class description
+     * @throws IOException in case of failure when writing the temporary files or the report
+     */
+    public static void main(final String[] args) throws IOException {
+        GameRulesBenchmark benchmark = new GameRulesBenchmark();
+        for (String arg : args) {
+            benchmark.parseOption(arg);
+        }
+        benchmark.run();
+    }
+
+    /**
+     * @param arg one command line option
+     */
+    private void parseOption(final String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        if (arg.equals("--parallel")) {
+            executionMode = ExecutionMode.PARALLEL;
+        } else if (arg.startsWith("--consumers=")) {
+            consumerCounts = parseInts(value);
+        } else if (arg.startsWith("--distributors=")) {
+            distributorCounts = parseInts(value);
+        } else if (arg.startsWith("--producers=")) {
+            producerCounts = parseInts(value);
+        } else if (arg.startsWith("--turns=")) {
+            turns = Integer.parseInt(value);
+        } else if (arg.startsWith("--warmup=")) {
+            warmupIterations = Integer.parseInt(value);
+        } else if (arg.startsWith("--iterations=")) {
+            measurementIterations = Integer.parseInt(value);
+        } else if (arg.startsWith("--seed=")) {
+            seed = Long.parseLong(value);
+        } else if (arg.startsWith("--store=")) {
+            storeType = ConsumerStoreType.valueOf(value);
+        } else if (arg.startsWith("--csv=")) {
+            csvFile = value;
+        } else if (arg.startsWith("--phases=")) {
+            phases = new ArrayList<>();
+            for (String phase : value.split(",")) {
+                phases.add(BenchmarkPhase.valueOf(phase));
+            }
+        } else {
+            throw new IllegalArgumentException("Unrecognized option " + arg);
+        }
+    }
+
+    private static int[] parseInts(final String values) {
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Measures every phase on every combination of sizes
+     *
+     * @throws IOException in case of failure when writing the temporary files or the report
+     */
+    private void run() throws IOException {
+        List<String> rows = new ArrayList<>();
+        System.out.printf("%-22s %-26s %14s %12s %16s %12s%n", "scenario", "phase",
+                "ops/s", "stddev", "bytes/op", "MB/s");
+
+        for (int consumers : consumerCounts) {
+            for (int distributors : distributorCounts) {
+                for (int producers : producerCounts) {
+                    BenchmarkScenario scenario = new BenchmarkScenario(consumers, distributors,
+                            producers, turns, seed);
+                    for (BenchmarkPhase phase : phases) {
+                        rows.add(measure(scenario, phase));
+                    }
+                }
+            }
+        }
+
+        if (csvFile != null) {
+            try (PrintStream csv = new PrintStream(csvFile)) {
+                csv.println("scenario,phase,opsPerSecond,opsPerSecondStdDev,bytesPerOp,"
+                        + "megabytesPerSecond");
+                rows.forEach(csv::println);
+            }
+        }
+    }
+
+    /**
+     * Runs the warmup and the measurement iterations of one phase
+     *
+     * @param scenario scenario that is played
+     * @param phase    measured phase
+     * @return CSV row of the result
+     * @throws IOException in case of failure when writing the temporary files
+     */
+    private String measure(final BenchmarkScenario scenario, final BenchmarkPhase phase)
+            throws IOException {
+        File input = File.createTempFile("benchmark-in", ".json");
+        File output = File.createTempFile("benchmark-out", ".json");
+        input.deleteOnExit();
+        output.deleteOnExit();
+        if (phase == BenchmarkPhase.READ_INPUT) {
+            scenario.writeInput(input);
+        }
+
+        for (int i = 0; i < warmupIterations; ++i) {
+            iterate(scenario, phase, input, output);
+        }
+        double[] throughputs = new double[measurementIterations];
+        Measurement total = new Measurement();
+        for (int i = 0; i < measurementIterations; ++i) {
+            Measurement measurement = iterate(scenario, phase, input, output);
+            throughputs[i] = measurement.operations * NANOS_PER_SECOND / measurement.nanos;
+            total.add(measurement);
+        }
+
+        double mean = Arrays.stream(throughputs).average().orElse(0);
+        double deviation = Math.sqrt(Arrays.stream(throughputs)
+                .map(throughput -> (throughput - mean) * (throughput - mean))
+                .average().orElse(0));
+        double bytesPerOperation = (double) total.bytes / total.operations;
+        double megabytesPerSecond = total.bytes / BYTES_PER_MEGABYTE
+                * NANOS_PER_SECOND / total.nanos;
+
+        System.out.printf(Locale.ROOT, "%-22s %-26s %14.2f %12.2f %16.1f %12.1f%n",
+                scenario.describe(), phase, mean, deviation, bytesPerOperation,
+                megabytesPerSecond);
+        return String.format(Locale.ROOT, "%s,%s,%.2f,%.2f,%.1f,%.1f", scenario.describe(),
+                phase, mean, deviation, bytesPerOperation, megabytesPerSecond);
+    }
+
+    /**
+     * Plays one fresh copy of the scenario and measures the phase
+     *
+     * @param scenario scenario that is played
+     * @param phase    measured phase
+     * @param input    input file of the scenario (only written for the Reader)
+     * @param output   file the Writer writes to
+     * @return time and allocations of the phase
+     * @throws IOException in case of failure when writing the output
+     */
+    private Measurement iterate(final BenchmarkScenario scenario, final BenchmarkPhase phase,
+                                final File input, final File output) throws IOException {
+        Measurement measurement = new Measurement();
+        if (phase == BenchmarkPhase.READ_INPUT) {
+            measurement.start();
+            Game game = new Reader(input.getPath()).readGameData();
+            // The months are parsed lazily, they are all consumed to measure the whole input
+            Iterator<MonthlyUpdate> updates = game.getMonthlyUpdates();
+            while (updates.hasNext()) {
+                sink = updates.next();
+            }
+            measurement.stop();
+            sink = game;
+        } else if (phase == BenchmarkPhase.WRITE_OUTPUT) {
+            Game game = createGame(scenario);
+            game.startGame();
+            measurement.start();
+            Writer writer = new Writer(output.getPath());
+            game.finishGame(writer);
+            measurement.stop();
+        } else {
+            Game game = createGame(scenario);
+            game.setPhaseObserver(new PhaseObserver() {
+                @Override
+                public void beforePhase(final int turn, final GamePhase gamePhase) {
+                    if (gamePhase == phase.getGamePhase()) {
+                        measurement.start();
+                    }
+                }
+
+                @Override
+                public void afterPhase(final int turn, final GamePhase gamePhase) {
+                    if (gamePhase == phase.getGamePhase()) {
+                        measurement.stop();
+                    }
+                }
+            });
+            game.startGame();
+        }
+        return measurement;
+    }
+
+    /**
+     * @param scenario scenario that is played
+     * @return a new game on a fresh copy of the scenario, with the options of the benchmark
+     */
+    private Game createGame(final BenchmarkScenario scenario) {
+        Game game = new Game(scenario.getTurns(), scenario.createMonthlyUpdates().iterator(),
+                scenario.createConsumers(), scenario.createDistributors(),
+                scenario.createProducers());
+        game.setExecutionMode(executionMode);
+        game.setConsumerStoreType(storeType);
+        return game;
+    }
+
+    /**
+     * Time and allocations of the calls of a phase. The allocations of the calling thread are
+     * read last when a call starts and first when it ends, so the bookkeeping of the other
+     * threads' counters is not counted. A thread that ends during a call is not counted.
+     */
+    private static final class Measurement {
+        private final Map<Long, Long> startOthers = new HashMap<>();
+        private long operations;
+        private long nanos;
+        private long bytes;
+        private long startNanos;
+        private long startBytes;
+
+        /**
+         * Marks the beginning of a call
+         */
+        void start() {
+            startOthers.clear();
+            long self = Thread.currentThread().getId();
+            long[] ids = THREADS.getAllThreadIds();
+            long[] allocated = THREADS.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; ++i) {
+                if (ids[i] != self && allocated[i] >= 0) {
+                    startOthers.put(ids[i], allocated[i]);
+                }
+            }
+            startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Marks the end of a call
+         */
+        void stop() {
+            nanos += System.nanoTime() - startNanos;
+            bytes += THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+            long self = Thread.currentThread().getId();
+            long[] ids = THREADS.getAllThreadIds();
+            long[] allocated = THREADS.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; ++i) {
+                if (ids[i] != self && allocated[i] >= 0) {
+                    // A thread started during the call allocated everything it reports
+                    bytes += allocated[i] - startOthers.getOrDefault(ids[i], 0L);
+                }
+            }
+            ++operations;
+        }
+
+        /**
+         * @param other measurement added to this one
+         */
+        void add(final Measurement other) {
+            operations += other.operations;
+            nanos += other.nanos;
+            bytes += other.bytes;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package generator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import entities.EnergyType;
+import strategies.EnergyChoiceStrategyType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates input files in the schema of the checker's inputs, at any size. The entities are
+ * written to the file as soon as they are drawn, so the memory used does not depend on the
+ * size of the scenario. All the values come from a single seeded generator: the same settings
+ * and seed always give the same file.
+ * Usage:
+ * ScenarioGenerator output.json [--consumers=1000000] [--distributors=1000]
+ * [--producers=1000] [--turns=100] [--seed=1] [--new-consumers=1000]
+ * [--distributor-changes=10] [--producer-changes=10] [--consumer-budget=0:200]
+ * [--consumer-income=10:100] [--distributor-budget=1000:100000]
+ * [--strategies=GREEN:1,PRICE:1,QUANTITY:1]
+ * [--energy-types=WIND:1,SOLAR:1,HYDRO:1,COAL:1,NUCLEAR:1]
+ */
+public final class ScenarioGenerator {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int[] CONTRACT_LENGTH = {1, 24};
+    private static final int[] INFRASTRUCTURE_COST = {10, 500};
+    private static final int[] ENERGY_NEEDED = {500, 10000};
+    private static final int[] ENERGY_PER_DISTRIBUTOR = {500, 10000};
+    private static final int[] PRICE_CENTS = {1, 10};
+    private static final double CENTS = 100.0;
+    private int consumers = 1000000;
+    private int distributors = 1000;
+    private int producers = 1000;
+    private int turns = 100;
+    private long seed = 1;
+    private int newConsumers = 1000;
+    private int distributorChanges = 10;
+    private int producerChanges = 10;
+    private int[] consumerBudget = {0, 200};
+    private int[] consumerIncome = {10, 100};
+    private int[] distributorBudget = {1000, 100000};
+    private double[] strategyWeights = {1, 1, 1};
+    private double[] energyTypeWeights = {1, 1, 1, 1, 1};
+    private Random random;
+
+    /**
+     * Writes a scenario with the default settings, changed by the options
+     *
+     * @param args output file followed by options, see the class description
+     * @throws IOException in case of failure when writing the file
+     */
+    public static void main(final String[] args) throws IOException {
+        ScenarioGenerator generator = new ScenarioGenerator();
+        for (int i = 1; i < args.length; ++i) {
+            generator.parseOption(args[i]);
+        }
+        generator.generate(new File(args[0]));
+    }
+
+    /**
+     * @param arg one command line option
+     */
+    private void parseOption(final String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        if (arg.startsWith("--consumers=")) {
+            consumers = Integer.parseInt(value);
+        } else if (arg.startsWith("--distributors=")) {
+            distributors = Integer.parseInt(value);
+        } else if (arg.startsWith("--producers=")) {
+            producers = Integer.parseInt(value);
+        } else if (arg.startsWith("--turns=")) {
+            turns = Integer.parseInt(value);
+        } else if (arg.startsWith("--seed=")) {
+            seed = Long.parseLong(value);
+        } else if (arg.startsWith("--new-consumers=")) {
+            newConsumers = Integer.parseInt(value);
+        } else if (arg.startsWith("--distributor-changes=")) {
+            distributorChanges = Integer.parseInt(value);
+        } else if (arg.startsWith("--producer-changes=")) {
+            producerChanges = Integer.parseInt(value);
+        } else if (arg.startsWith("--consumer-budget=")) {
+            consumerBudget = parseRange(value);
+        } else if (arg.startsWith("--consumer-income=")) {
+            consumerIncome = parseRange(value);
+        } else if (arg.startsWith("--distributor-budget=")) {
+            distributorBudget = parseRange(value);
+        } else if (arg.startsWith("--strategies=")) {
+            strategyWeights = parseWeights(value, EnergyChoiceStrategyType.values());
+        } else if (arg.startsWith("--energy-types=")) {
+            energyTypeWeights = parseWeights(value, EnergyType.values());
+        } else {
+            throw new IllegalArgumentException("Unrecognized option " + arg);
+        }
+    }
+
+    /**
+     * @param value "min:max" (both inclusive)
+     * @return the two bounds
+     */
+    private static int[] parseRange(final String value) {
+        String[] bounds = value.split(":");
+        return new int[] {Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1])};
+    }
+
+    /**
+     * @param value   "NAME:weight" pairs separated by commas, missing names get no weight
+     * @param choices all the values that can be drawn
+     * @return weight of every value, in the order of the enum
+     */
+    private static double[] parseWeights(final String value, final Enum<?>[] choices) {
+        double[] weights = new double[choices.length];
+        for (String pair : value.split(",")) {
+            String[] parts = pair.split(":");
+            for (Enum<?> choice : choices) {
+                if (choice.name().equals(parts[0])) {
+                    weights[choice.ordinal()] = Double.parseDouble(parts[1]);
+                }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Writes the scenario
+     *
+     * @param file destination
+     * @throws IOException in case of failure when writing the file
+     */
+    public void generate(final File file) throws IOException {
+        random = new Random(seed);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeNumberField("numberOfTurns", turns);
+
+            json.writeObjectFieldStart("initialData");
+            json.writeArrayFieldStart("consumers");
+            for (int id = 0; id < consumers; ++id) {
+                writeConsumer(json, id);
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("distributors");
+            for (int id = 0; id < distributors; ++id) {
+                writeDistributor(json, id);
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("producers");
+            for (int id = 0; id < producers; ++id) {
+                writeProducer(json, id);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+
+            // New consumers get the IDs that follow the initial ones
+            int nextConsumer = consumers;
+            json.writeArrayFieldStart("monthlyUpdates");
+            for (int month = 0; month < turns; ++month) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("newConsumers");
+                for (int i = drawCount(newConsumers); i > 0; --i) {
+                    writeConsumer(json, nextConsumer++);
+                }
+                json.writeEndArray();
+                json.writeArrayFieldStart("distributorChanges");
+                for (int i = distributors > 0 ? drawCount(distributorChanges) : 0; i > 0; --i) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", random.nextInt(distributors));
+                    json.writeNumberField("infrastructureCost", draw(INFRASTRUCTURE_COST));
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeArrayFieldStart("producerChanges");
+                for (int i = producers > 0 ? drawCount(producerChanges) : 0; i > 0; --i) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", random.nextInt(producers));
+                    json.writeNumberField("energyPerDistributor", draw(ENERGY_PER_DISTRIBUTOR));
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private void writeConsumer(final JsonGenerator json, final int id) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeNumberField("initialBudget", draw(consumerBudget));
+        json.writeNumberField("monthlyIncome", draw(consumerIncome));
+        json.writeEndObject();
+    }
+
+    private void writeDistributor(final JsonGenerator json, final int id) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeNumberField("contractLength", draw(CONTRACT_LENGTH));
+        json.writeNumberField("initialBudget", draw(distributorBudget));
+        json.writeNumberField("initialInfrastructureCost", draw(INFRASTRUCTURE_COST));
+        json.writeNumberField("energyNeededKW", draw(ENERGY_NEEDED));
+        json.writeStringField("producerStrategy",
+                EnergyChoiceStrategyType.values()[drawWeighted(strategyWeights)].toString());
+        json.writeEndObject();
+    }
+
+    private void writeProducer(final JsonGenerator json, final int id) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeStringField("energyType",
+                EnergyType.values()[drawWeighted(energyTypeWeights)].getLabel());
+        json.writeNumberField("maxDistributors", 1 + random.nextInt(Math.max(1, distributors)));
+        json.writeNumberField("priceKW", draw(PRICE_CENTS) / CENTS);
+        json.writeNumberField("energyPerDistributor", draw(ENERGY_PER_DISTRIBUTOR));
+        json.writeEndObject();
+    }
+
+    /**
+     * @param range the two bounds, both inclusive
+     * @return uniformly drawn value in the range
+     */
+    private int draw(final int[] range) {
+        return range[0] + random.nextInt(range[1] - range[0] + 1);
+    }
+
+    /**
+     * @param mean average number of events in a month
+     * @return number of events of a month, uniformly drawn between 0 and twice the mean
+     */
+    private int drawCount(final int mean) {
+        return random.nextInt(2 * mean + 1);
+    }
+
+    /**
+     * @param weights weight of every choice
+     * @return index of the drawn choice
+     */
+    private int drawWeighted(final double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; ++i) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * @param consumers number of initial consumers
+     */
+    public void setConsumers(final int consumers) {
+        this.consumers = consumers;
+    }
+
+    /**
+     * @param distributors number of distributors
+     */
+    public void setDistributors(final int distributors) {
+        this.distributors = distributors;
+    }
+
+    /**
+     * @param producers number of producers
+     */
+    public void setProducers(final int producers) {
+        this.producers = producers;
+    }
+
+    /**
+     * @param turns number of months
+     */
+    public void setTurns(final int turns) {
+        this.turns = turns;
+    }
+
+    /**
+     * @param seed seed of all the random values
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param newConsumers average number of new consumers in a month
+     */
+    public void setNewConsumers(final int newConsumers) {
+        this.newConsumers = newConsumers;
+    }
+
+    /**
+     * @param distributorChanges average number of distributor changes in a month
+     */
+    public void setDistributorChanges(final int distributorChanges) {
+        this.distributorChanges = distributorChanges;
+    }
+
+    /**
+     * @param producerChanges average number of producer changes in a month
+     */
+    public void setProducerChanges(final int producerChanges) {
+        this.producerChanges = producerChanges;
+    }
+}
@@ -0,0 +1,108 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Entry point that plays many inputs in the same JVM. The games are independent (every game
+ * has its own entities, ledger and GameRules, the factories are stateless singletons), so they
+ * run concurrently on a bounded fork-join pool.
+ */
+public final class BatchMain {
+    private static final String[] BATCH_OPTIONS = {"--threads="};
+
+    private BatchMain() { }
+
+    /**
+     * Plays every input and writes its output
+     *
+     * @param args a directory of inputs (every ".json" file) or a manifest file, followed by
+     *             the output directory, then optionally "--threads=N" and the options of Main
+     *             that are applied to every game (except the snapshot files of
+     *             "--checkpoint=" and "--resume="). Every line of a manifest is an input file,
+     *             optionally followed by its output file; empty lines and lines starting with
+     *             "#" are skipped. By default, an output has the name of its input.
+     * @throws Exception might error when listing the inputs or creating the output directory
+     */
+    public static void main(final String[] args) throws Exception {
+        Main.rejectSingleGameOptions(args, 2);
+        Main.rejectUnknownOptions(args, 2, BATCH_OPTIONS);
+        Path outputs = Paths.get(args[1]);
+        Files.createDirectories(outputs);
+        List<String[]> jobs = listJobs(Paths.get(args[0]), outputs);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; ++i) {
+            if (args[i].startsWith("--threads=")) {
+                threads = Integer.parseInt(args[i].substring("--threads=".length()));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (String[] job : jobs) {
+            tasks.add(() -> {
+                Main.play(job[0], job[1], args, 2);
+                return null;
+            });
+        }
+
+        int failed = 0;
+        try {
+            List<Future<Void>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); ++i) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    ++failed;
+                    System.err.println("Failed " + jobs.get(i)[0] + ": " + e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("Played " + (jobs.size() - failed) + " of " + jobs.size()
+                + " games.");
+    }
+
+    /**
+     * @param inputs  directory of inputs or manifest file
+     * @param outputs output directory
+     * @return input and output file of every game, in a stable order
+     * @throws IOException in case of failure when listing the inputs
+     */
+    private static List<String[]> listJobs(final Path inputs, final Path outputs)
+            throws IOException {
+        List<String[]> jobs = new ArrayList<>();
+        if (Files.isDirectory(inputs)) {
+            try (Stream<Path> files = Files.list(inputs)) {
+                for (Path file : files.filter(path -> path.toString().endsWith(".json"))
+                        .sorted().collect(Collectors.toList())) {
+                    jobs.add(new String[] {file.toString(),
+                            outputs.resolve(file.getFileName()).toString()});
+                }
+            }
+            return jobs;
+        }
+
+        for (String line : Files.readAllLines(inputs)) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts[0].isEmpty() || parts[0].startsWith("#")) {
+                continue;
+            }
+            String output = parts.length > 1 ? parts[1]
+                    : outputs.resolve(new File(parts[0]).getName()).toString();
+            jobs.add(new String[] {parts[0], output});
+        }
+        return jobs;
+    }
+}
@@ -0,0 +1,20 @@
+import fileio.InputCompiler;
+
+/**
+ * Entry point that compiles a JSON input into the binary format loaded by Reader. Inputs that
+ * are played many times only have to be parsed once.
+ */
+public final class CompileMain {
+
+    private CompileMain() { }
+
+    /**
+     * Compiles an input
+     *
+     * @param args the JSON input followed by the binary file to be written
+     * @throws Exception might error when reading the input or writing the compiled file
+     */
+    public static void main(final String[] args) throws Exception {
+        new InputCompiler(args[0]).compile(args[1]);
+    }
+}
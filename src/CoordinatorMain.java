@@ -0,0 +1,377 @@
+import fileio.SweepWriter;
+import game.GameOutcome;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entry point that spreads many games over several worker JVMs (WorkerMain), so that no single
+ * heap holds all of them. Every worker gets its own queue and the jobs of the same input go to
+ * the same queue, so a worker parses an input once and plays all its variants from the cached
+ * Scenario. A worker that runs out of jobs steals the last job of the longest queue. A worker
+ * that dies, or does not answer a job in time, is started again and its job is retried.
+ */
+public final class CoordinatorMain {
+    private static final int DEFAULT_ATTEMPTS = 2;
+    private static final int DEFAULT_JOB_TIMEOUT_SECONDS = 1800;
+    private static final int ANSWER_FIELDS = 3;
+    private static final String[] COORDINATOR_OPTIONS =
+            {"--workers=", "--worker-jvm=", "--attempts=", "--job-timeout="};
+
+    private CoordinatorMain() { }
+
+    /**
+     * Plays every job of the manifest on the workers and writes the report
+     *
+     * @param args a manifest of jobs and the report file, then optionally "--workers=N" (the
+     *             available processors by default), "--worker-jvm=" with the options of the
+     *             workers' JVMs separated by commas (e.g. -Xmx4g), "--attempts=N" (how many
+     *             times a job is tried when its worker dies, 2 by default), "--job-timeout=S"
+     *             (the seconds a worker is given to answer a job before it is stopped, 1800
+     *             by default, 0 waits forever) and the options of
+     *             WorkerMain and Main that are passed to every worker (except the snapshot
+     *             files of "--checkpoint=" and "--resume="). Every line of the
+     *             manifest is an input file, optionally followed by its output file and by the
+     *             options of a variant (as in VariantOptions); empty lines and lines starting
+     *             with "#" are skipped.
+     * @throws Exception might error when reading the manifest or writing the report
+     */
+    public static void main(final String[] args) throws Exception {
+        Main.rejectSingleGameOptions(args, 2);
+        Main.rejectUnknownOptions(args, 2, COORDINATOR_OPTIONS, WorkerMain.WORKER_OPTIONS);
+        int workers = Runtime.getRuntime().availableProcessors();
+        int attempts = DEFAULT_ATTEMPTS;
+        long jobTimeout = DEFAULT_JOB_TIMEOUT_SECONDS;
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (int i = 2; i < args.length; ++i) {
+            if (args[i].startsWith("--workers=")) {
+                workers = Integer.parseInt(args[i].substring("--workers=".length()));
+            } else if (args[i].startsWith("--worker-jvm=")) {
+                command.addAll(Arrays.asList(
+                        args[i].substring("--worker-jvm=".length()).split(",")));
+            } else if (args[i].startsWith("--attempts=")) {
+                attempts = Integer.parseInt(args[i].substring("--attempts=".length()));
+            } else if (args[i].startsWith("--job-timeout=")) {
+                jobTimeout = Long.parseLong(args[i].substring("--job-timeout=".length()));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(WorkerMain.class.getName());
+        for (int i = 2; i < args.length; ++i) {
+            if (!isCoordinatorOption(args[i])) {
+                command.add(args[i]);
+            }
+        }
+
+        List<Job> jobs = readJobs(args[0]);
+        JobQueues queues = new JobQueues(jobs, workers);
+        GameOutcome[] outcomes = new GameOutcome[jobs.size()];
+        AtomicInteger restarts = new AtomicInteger();
+
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < workers; ++i) {
+            int worker = i;
+            int maxAttempts = attempts;
+            long timeoutSeconds = jobTimeout;
+            tasks.add(() -> {
+                serve(worker, command, queues, outcomes, maxAttempts, timeoutSeconds, restarts);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    System.err.println("Worker failed: " + e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<String> descriptions = new ArrayList<>();
+        int played = 0;
+        for (Job job : jobs) {
+            descriptions.add(job.description);
+            played += outcomes[job.index] != null ? 1 : 0;
+        }
+        new SweepWriter(args[1]).writeSummary(descriptions, Arrays.asList(outcomes));
+        System.out.println("Played " + played + " of " + jobs.size() + " games on " + workers
+                + " workers (" + restarts.get() + " restarts).");
+    }
+
+    private static boolean isCoordinatorOption(final String arg) {
+        for (String option : COORDINATOR_OPTIONS) {
+            if (arg.startsWith(option)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Feeds one worker process with jobs until there are none left, starting it again
+     * whenever it dies
+     *
+     * @param worker      index of the worker (and of its queue)
+     * @param command     command that starts a worker process
+     * @param queues      queues of the jobs
+     * @param outcomes    outcome of every job, filled in as the answers come
+     * @param maxAttempts number of times a job is tried before it is given up
+     * @param jobTimeout  seconds the worker is given to answer a job, 0 to wait forever
+     * @param restarts    number of workers started again
+     * @throws IOException in case of failure when starting the process
+     */
+    private static void serve(final int worker, final List<String> command,
+                              final JobQueues queues, final GameOutcome[] outcomes,
+                              final int maxAttempts, final long jobTimeout,
+                              final AtomicInteger restarts) throws IOException {
+        WorkerProcess process = new WorkerProcess(command);
+        try {
+            Job job;
+            while ((job = queues.next(worker)) != null) {
+                String answer;
+                try {
+                    answer = process.play(job, jobTimeout);
+                } catch (TimeoutException e) {
+                    System.err.println("Timed out " + job.description + " after " + jobTimeout
+                            + " seconds, its worker is stopped.");
+                    answer = null;
+                }
+                if (answer == null) {
+                    // The worker died (or hung) with the job, the job is retried by a new worker
+                    process.destroy();
+                    restarts.incrementAndGet();
+                    process = new WorkerProcess(command);
+                    if (++job.attempts < maxAttempts) {
+                        queues.retry(worker, job);
+                    } else {
+                        System.err.println("Failed " + job.description + ": no answer.");
+                    }
+                    continue;
+                }
+
+                String[] fields = answer.split(WorkerMain.SEPARATOR, ANSWER_FIELDS);
+                if (fields.length == ANSWER_FIELDS && fields[1].equals(WorkerMain.DONE)) {
+                    outcomes[job.index] = GameOutcome.decode(fields[2]);
+                } else {
+                    System.err.println("Failed " + job.description + ": "
+                            + fields[fields.length - 1]);
+                }
+            }
+            process.close();
+        } finally {
+            process.destroy();
+        }
+    }
+
+    /**
+     * @param manifest file with one job per line
+     * @return jobs in the order of the manifest
+     * @throws IOException in case of failure when reading the manifest
+     */
+    private static List<Job> readJobs(final String manifest) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(manifest))) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts[0].isEmpty() || parts[0].startsWith("#")) {
+                continue;
+            }
+            String output = parts.length > 1 && !parts[1].startsWith("--") ? parts[1] : "";
+            List<String> options = Arrays.asList(parts)
+                    .subList(output.isEmpty() ? 1 : 2, parts.length);
+            jobs.add(new Job(jobs.size(), new File(parts[0]).getAbsolutePath(),
+                    output.isEmpty() ? "" : new File(output).getAbsolutePath(), options));
+        }
+        return jobs;
+    }
+
+    /**
+     * One game to be played by a worker
+     */
+    private static final class Job {
+        private final int index;
+        private final String input;
+        private final String output;
+        private final List<String> options;
+        private final String description;
+        private int attempts = 0;
+
+        private Job(final int index, final String input, final String output,
+                    final List<String> options) {
+            this.index = index;
+            this.input = input;
+            this.output = output;
+            this.options = options;
+            // Parsing the variant here rejects a malformed manifest before any worker starts
+            this.description = input + " " + VariantOptions.parse(options);
+        }
+
+        /**
+         * @return the job as a line of the workers' protocol
+         */
+        private String encode() {
+            StringBuilder line = new StringBuilder();
+            line.append(index).append(WorkerMain.SEPARATOR).append(input)
+                    .append(WorkerMain.SEPARATOR).append(output);
+            for (String option : options) {
+                line.append(WorkerMain.SEPARATOR).append(option);
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * One queue of jobs per worker. The jobs of an input are kept together in the same queue,
+     * the inputs with the most jobs are placed first, each in the shortest queue. A worker
+     * takes jobs from the front of its queue and steals from the back of the longest one, so
+     * the thief takes the input its victim would reach last.
+     */
+    private static final class JobQueues {
+        private final List<Deque<Job>> queues = new ArrayList<>();
+
+        private JobQueues(final List<Job> jobs, final int workers) {
+            for (int i = 0; i < workers; ++i) {
+                queues.add(new ArrayDeque<>());
+            }
+
+            Map<String, List<Job>> inputs = new LinkedHashMap<>();
+            for (Job job : jobs) {
+                inputs.computeIfAbsent(job.input, input -> new ArrayList<>()).add(job);
+            }
+            List<List<Job>> groups = new ArrayList<>(inputs.values());
+            groups.sort((first, second) -> Integer.compare(second.size(), first.size()));
+            for (List<Job> group : groups) {
+                Deque<Job> shortest = queues.get(0);
+                for (Deque<Job> queue : queues) {
+                    if (queue.size() < shortest.size()) {
+                        shortest = queue;
+                    }
+                }
+                shortest.addAll(group);
+            }
+        }
+
+        /**
+         * @param worker index of the worker
+         * @return next job of the worker (stolen if its queue is empty), null if there are no
+         * jobs left
+         */
+        private synchronized Job next(final int worker) {
+            Job job = queues.get(worker).pollFirst();
+            if (job != null) {
+                return job;
+            }
+
+            Deque<Job> longest = queues.get(worker);
+            for (Deque<Job> queue : queues) {
+                if (queue.size() > longest.size()) {
+                    longest = queue;
+                }
+            }
+            return longest.pollLast();
+        }
+
+        /**
+         * @param worker index of the worker that tries the job again
+         * @param job    job whose worker died
+         */
+        private synchronized void retry(final int worker, final Job job) {
+            queues.get(worker).addFirst(job);
+        }
+    }
+
+    /**
+     * A worker JVM and the pipes to its standard input and output. The answers are read on a
+     * daemon thread of the process, so that waiting for one can time out.
+     */
+    private static final class WorkerProcess {
+        private final Process process;
+        private final Writer jobs;
+        private final BufferedReader answers;
+        private final ExecutorService reader = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "worker-answers");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private WorkerProcess(final List<String> command) throws IOException {
+            process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            jobs = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+            answers = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @param job        job to be played
+         * @param jobTimeout seconds to wait for the answer, 0 to wait forever
+         * @return answer of the worker, null if the worker died
+         * @throws TimeoutException if the worker did not answer in time (it is still running)
+         */
+        private String play(final Job job, final long jobTimeout) throws TimeoutException {
+            try {
+                jobs.write(job.encode());
+                jobs.write(System.lineSeparator());
+                jobs.flush();
+                Future<String> answer = reader.submit(answers::readLine);
+                return jobTimeout > 0 ? answer.get(jobTimeout, TimeUnit.SECONDS) : answer.get();
+            } catch (IOException | ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        /**
+         * Closes the worker's input, so that it exits after its last job
+         *
+         * @throws IOException in case of failure when closing the pipe
+         */
+        private void close() throws IOException {
+            jobs.close();
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Kills the worker, which also ends a pending read of its answer
+         */
+        private void destroy() {
+            process.destroyForcibly();
+            reader.shutdown();
+        }
+    }
+}
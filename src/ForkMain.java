@@ -0,0 +1,92 @@
+import fileio.Reader;
+import fileio.SweepWriter;
+import game.Game;
+import game.GameOutcome;
+import game.Scenario;
+import game.ScenarioVariant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Entry point that answers "what if" questions about one input: the game is played once up to
+ * a fork point, then every branch continues from there with its own changes of the months.
+ * The branches are forked from the trunk in memory and run concurrently on a bounded
+ * fork-join pool, so the months before the fork point are played once for all of them.
+ */
+public final class ForkMain {
+    private static final String[] FORK_OPTIONS = {"--threads=", "--fork-at=", "--branch="};
+
+    private ForkMain() { }
+
+    /**
+     * Plays the trunk and every branch and writes the summary
+     *
+     * @param args input file and summary file, then "--fork-at=N" (the last turn played by
+     *             the trunk), optionally "--threads=N" and one "--branch=" per branch: its
+     *             changes separated by commas, "producer:ID@TURN=ENERGY" changes the energy per
+     *             distributor of a producer and "distributor:ID@TURN=COST" the infrastructure
+     *             cost of a distributor, at a turn after the fork point. A branch without
+     *             changes is always played first. The options of Main are applied to the
+     *             trunk, whose branches are configured like it (except the snapshot files of
+     *             "--checkpoint=" and "--resume=", which are rejected).
+     * @throws Exception might error when reading the input or writing the files
+     */
+    public static void main(final String[] args) throws Exception {
+        Main.rejectSingleGameOptions(args, 2);
+        Main.rejectUnknownOptions(args, 2, FORK_OPTIONS);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int forkTurn = 0;
+        List<ScenarioVariant> branches = new ArrayList<>();
+        branches.add(new ScenarioVariant());
+        for (int i = 2; i < args.length; ++i) {
+            if (args[i].startsWith("--threads=")) {
+                threads = Integer.parseInt(args[i].substring("--threads=".length()));
+            } else if (args[i].startsWith("--fork-at=")) {
+                forkTurn = Integer.parseInt(args[i].substring("--fork-at=".length()));
+            } else if (args[i].startsWith("--branch=")) {
+                ScenarioVariant branch = new ScenarioVariant();
+                VariantOptions.addChanges(branch, args[i].substring("--branch=".length()));
+                branches.add(branch);
+            }
+        }
+
+        Scenario scenario = Scenario.of(new Reader(args[0]).readValidGameData());
+        Game trunk = scenario.createGame(new ScenarioVariant());
+        Main.configure(trunk, args, 2);
+        trunk.playUntil(forkTurn);
+
+        // The branches are forked before any of them is played, the trunk stays at the fork
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Callable<GameOutcome>> tasks = new ArrayList<>();
+        for (ScenarioVariant branch : branches) {
+            Game game = scenario.createBranch(branch, trunk);
+            tasks.add(() -> {
+                game.startGame();
+                return game.getOutcome();
+            });
+        }
+
+        List<GameOutcome> outcomes = new ArrayList<>();
+        try {
+            List<Future<GameOutcome>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); ++i) {
+                try {
+                    outcomes.add(results.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(null);
+                    System.err.println("Failed " + branches.get(i) + ": " + e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        new SweepWriter(args[1]).writeSummary(branches, outcomes);
+        System.out.println("Played " + branches.size() + " branches from turn " + forkTurn
+                + ".");
+    }
+}
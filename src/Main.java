@@ -1,27 +1,151 @@
+import entities.ConsumerStoreType;
 import fileio.Reader;
+import fileio.StatisticsWriter;
 import fileio.Writer;
+import game.ExecutionMode;
 import game.Game;
 
+import java.io.IOException;
+
 /**
  * Entry point to the simulation
  */
 public final class Main {
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+    private static final String[] GAME_OPTIONS = {"--parallel", "--statistics", "--consumers=",
+        "--checkpoint=", "--checkpoint-every=", "--resume="};
 
     private Main() { }
 
     /**
      * Main function which reads the input file and starts simulation
      *
-     * @param args input and output files
+     * @param args input and output files, optionally followed by "--parallel" to run the
+     *             consumer phases with fork-join and "--consumers=TABLE" to store the
+     *             consumers as a table of primitive columns ("--consumers=MAPPED" keeps them
+     *             off the heap, in a memory-mapped file); "--statistics" writes the time
+     *             and the entities touched by every phase next to the output file;
+     *             "--checkpoint=FILE" writes a snapshot every "--checkpoint-every=N" turns
+     *             (100 by default) and "--resume=FILE" resumes the game from a snapshot
      * @throws Exception might error when reading/writing/opening files, parsing JSON
      */
     public static void main(final String[] args) throws Exception {
-        Reader reader = new Reader(args[0]);
-        Writer writer = new Writer(args[1]);
+        rejectUnknownOptions(args, 2);
+        play(args[0], args[1], args, 2);
+    }
+
+    /**
+     * Plays one game: reads the input, applies the options, plays the game and writes the
+     * output (and the statistics of the phases, if they were requested)
+     *
+     * @param input  input file
+     * @param output output file
+     * @param args   command line arguments
+     * @param from   index of the first option in the arguments
+     * @throws IOException in case of failure when opening the output or writing the reports
+     */
+    static void play(final String input, final String output, final String[] args,
+                     final int from) throws IOException {
+        Reader reader = new Reader(input);
+        Writer writer = new Writer(output);
 
         // Initialize game, play game and finish game
         Game game = reader.readGameData();
+        configure(game, args, from);
         game.startGame();
-        writer.closeJSON(game.finishGame(writer));
+        game.finishGame(writer);
+
+        if (game.getStatistics().isEnabled()) {
+            new StatisticsWriter(output).writeReports(game.getStatistics());
+        }
+    }
+
+    /**
+     * Rejects the options that name the files of a single game ("--checkpoint=" and
+     * "--resume="), used by the entry points that play several games with the same options:
+     * all their games would write to and resume from the same snapshot
+     *
+     * @param args command line arguments
+     * @param from index of the first option in the arguments
+     */
+    static void rejectSingleGameOptions(final String[] args, final int from) {
+        for (int i = from; i < args.length; ++i) {
+            if (args[i].startsWith("--checkpoint=") || args[i].startsWith("--resume=")) {
+                throw new IllegalArgumentException(args[i].substring(0, args[i].indexOf('='))
+                        + " names the snapshot of one game, it cannot be used when several"
+                        + " games are played.");
+            }
+        }
+    }
+
+    /**
+     * Rejects the options that are neither options of Main nor of the entry point, so that a
+     * misspelled option fails the run instead of being ignored
+     *
+     * @param args         command line arguments
+     * @param from         index of the first option in the arguments
+     * @param entryOptions options of the entry point (a name ending with "=" takes a value)
+     */
+    static void rejectUnknownOptions(final String[] args, final int from,
+                                     final String[]... entryOptions) {
+        for (int i = from; i < args.length; ++i) {
+            boolean known = isOption(args[i], GAME_OPTIONS);
+            for (String[] options : entryOptions) {
+                known |= isOption(args[i], options);
+            }
+            if (!known) {
+                throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+            }
+        }
+    }
+
+    /**
+     * @param arg     command line argument
+     * @param options options to match (a name ending with "=" matches any value)
+     * @return whether the argument is one of the options
+     */
+    private static boolean isOption(final String arg, final String[] options) {
+        for (String option : options) {
+            if (option.endsWith("=") ? arg.startsWith(option) : arg.equals(option)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the options of the command line to a game
+     *
+     * @param game game to be configured
+     * @param args command line arguments
+     * @param from index of the first option in the arguments
+     */
+    static void configure(final Game game, final String[] args, final int from) {
+        String checkpoint = null;
+        int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        for (int i = from; i < args.length; ++i) {
+            if (args[i].equals("--parallel")) {
+                game.setExecutionMode(ExecutionMode.PARALLEL);
+            } else if (args[i].equals("--statistics")) {
+                game.setStatisticsEnabled(true);
+            } else if (args[i].startsWith("--consumers=")) {
+                game.setConsumerStoreType(ConsumerStoreType.valueOf(
+                        args[i].substring("--consumers=".length())));
+            } else if (args[i].startsWith("--checkpoint=")) {
+                checkpoint = args[i].substring("--checkpoint=".length());
+            } else if (args[i].startsWith("--checkpoint-every=")) {
+                checkpointInterval = Integer.parseInt(
+                        args[i].substring("--checkpoint-every=".length()));
+                if (checkpointInterval <= 0) {
+                    throw new IllegalArgumentException("--checkpoint-every takes a positive"
+                            + " number of turns, not " + checkpointInterval + ".");
+                }
+            } else if (args[i].startsWith("--resume=")) {
+                game.setResumeSnapshot(args[i].substring("--resume=".length()));
+            }
+        }
+        if (checkpoint != null) {
+            game.setCheckpoint(checkpoint, checkpointInterval);
+        }
     }
 }
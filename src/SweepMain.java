@@ -0,0 +1,107 @@
+import fileio.Reader;
+import fileio.SweepWriter;
+import game.Game;
+import game.GameOutcome;
+import game.Scenario;
+import game.ScenarioVariant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Entry point that plays one input many times with different parameters. The input is read
+ * once into an immutable Scenario, every variant of the grid gets its own game created from it
+ * and the games run concurrently on a bounded fork-join pool.
+ */
+public final class SweepMain {
+    private static final String INPUT = "INPUT";
+    private static final String[] SWEEP_OPTIONS = {"--threads=", "--infrastructure=",
+        "--contract-length=", "--strategies=", "--price="};
+
+    private SweepMain() { }
+
+    /**
+     * Plays every variant of the grid and writes the summary
+     *
+     * @param args input file and summary file, then optionally "--threads=N" and the values of
+     *             every parameter, separated by commas: "--infrastructure=" multiplies the
+     *             initial infrastructure costs, "--contract-length=" replaces the contract
+     *             lengths (0 keeps the input's), "--strategies=" gives the distributors the
+     *             strategies in turns (GREEN/PRICE alternates them, INPUT keeps the input's)
+     *             and "--price=" multiplies the producers' prices. Every combination of values
+     *             is played, with the options of Main applied to every game (except the
+     *             snapshot files of "--checkpoint=" and "--resume=").
+     * @throws Exception might error when reading the input or writing the summary
+     */
+    public static void main(final String[] args) throws Exception {
+        Main.rejectSingleGameOptions(args, 2);
+        Main.rejectUnknownOptions(args, 2, SWEEP_OPTIONS);
+        int threads = Runtime.getRuntime().availableProcessors();
+        String[] infrastructure = {"1"};
+        String[] contractLengths = {"0"};
+        String[] strategies = {INPUT};
+        String[] prices = {"1"};
+        for (int i = 2; i < args.length; ++i) {
+            if (args[i].startsWith("--threads=")) {
+                threads = Integer.parseInt(args[i].substring("--threads=".length()));
+            } else if (args[i].startsWith("--infrastructure=")) {
+                infrastructure = args[i].substring("--infrastructure=".length()).split(",");
+            } else if (args[i].startsWith("--contract-length=")) {
+                contractLengths = args[i].substring("--contract-length=".length()).split(",");
+            } else if (args[i].startsWith("--strategies=")) {
+                strategies = args[i].substring("--strategies=".length()).split(",");
+            } else if (args[i].startsWith("--price=")) {
+                prices = args[i].substring("--price=".length()).split(",");
+            }
+        }
+
+        List<ScenarioVariant> variants = new ArrayList<>();
+        for (String factor : infrastructure) {
+            for (String length : contractLengths) {
+                for (String strategy : strategies) {
+                    for (String price : prices) {
+                        ScenarioVariant variant = new ScenarioVariant();
+                        variant.setInfrastructureFactor(Double.parseDouble(factor));
+                        variant.setContractLength(Integer.parseInt(length));
+                        variant.setStrategies(VariantOptions.parseStrategies(strategy));
+                        variant.setPriceFactor(Double.parseDouble(price));
+                        variants.add(variant);
+                    }
+                }
+            }
+        }
+
+        Scenario scenario = Scenario.of(new Reader(args[0]).readValidGameData());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Callable<GameOutcome>> tasks = new ArrayList<>();
+        for (ScenarioVariant variant : variants) {
+            tasks.add(() -> {
+                Game game = scenario.createGame(variant);
+                Main.configure(game, args, 2);
+                game.startGame();
+                return game.getOutcome();
+            });
+        }
+
+        List<GameOutcome> outcomes = new ArrayList<>();
+        try {
+            List<Future<GameOutcome>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); ++i) {
+                try {
+                    outcomes.add(results.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(null);
+                    System.err.println("Failed " + variants.get(i) + ": " + e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        new SweepWriter(args[1]).writeSummary(variants, outcomes);
+        System.out.println("Played " + variants.size() + " variants.");
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
@@ -115,6 +116,10 @@ public final class Test {
 
     private static final int MAX_MILLISECONDS_PER_TEST = 1000;
 
+    private static final String SNAPSHOT_FILE = "results.snapshot";
+    private static final File TEST_SNAPSHOT_FILE = new File(SNAPSHOT_FILE);
+    private static final int CHECKPOINT_INTERVAL = 2;
+
     private static int score = 0;
     private static int totalScore = 0;
 
@@ -160,6 +165,10 @@ public final class Test {
             runTest(testFileName, config, future);
         }
 
+        for (final File testFile: Objects.requireNonNull(TEST_INPUTS_FILE.listFiles())) {
+            runResumeTest(testFile);
+        }
+
         boolean checkstylePassed = Checkstyle.testCheckstyle();
         if (checkstylePassed) {
             score += config.getCheckstyleScore();
@@ -217,6 +226,46 @@ public final class Test {
         }
     }
 
+    /**
+     * Plays a test with a snapshot every few turns, resumes it from the last snapshot and
+     * compares the output of the resumed game with the reference. It is not graded, a
+     * difference means the snapshot lost part of the state of the game.
+     * @param testFile input of the test
+     */
+    private static void runResumeTest(final File testFile) {
+        String testFileName = testFile.getName();
+        ObjectMapper objectMapper = new ObjectMapper();
+        File refFile = new File(CHECKER_RESOURCES_FOLDER + REF_FOLDER + testFileName);
+
+        preTestCleanUp();
+        TEST_SNAPSHOT_FILE.delete();
+        try {
+            List<String> argv = new ArrayList<>(Arrays.asList(createTestArgv(testFile)));
+            argv.add("--checkpoint=" + SNAPSHOT_FILE);
+            argv.add("--checkpoint-every=" + CHECKPOINT_INTERVAL);
+            Main.main(argv.toArray(new String[0]));
+            if (!TEST_SNAPSHOT_FILE.exists()) {
+                // The game ends before its first snapshot
+                return;
+            }
+
+            preTestCleanUp();
+            argv = new ArrayList<>(Arrays.asList(createTestArgv(testFile)));
+            argv.add("--resume=" + SNAPSHOT_FILE);
+            Main.main(argv.toArray(new String[0]));
+
+            if (objectMapper.readTree(refFile).equals(objectMapper.readTree(TEST_OUT_FILE))) {
+                printMessage(testFileName, "resumed", true);
+            } else {
+                printMessage(testFileName, "resumed output differs from the reference", true);
+            }
+        } catch (Exception e) {
+            printMessage(testFileName, "Resume ended with exception: " + e.getMessage());
+        } finally {
+            TEST_SNAPSHOT_FILE.delete();
+        }
+    }
+
     private static Future<Object> createTimerTask(final String[] argv) {
         ExecutorService executor = Executors.newCachedThreadPool();
         Callable<Object> task = () -> {
@@ -0,0 +1,82 @@
+import game.ScenarioVariant;
+import strategies.EnergyChoiceStrategyType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the options that describe a single variant of a scenario, shared by the entry points
+ * that play variants
+ */
+final class VariantOptions {
+    private static final String INPUT = "INPUT";
+    private static final int ID_PART = 1;
+    private static final int TURN_PART = 2;
+    private static final int VALUE_PART = 3;
+
+    private VariantOptions() { }
+
+    /**
+     * @param options "--infrastructure=", "--contract-length=", "--strategies=" and "--price="
+     *                with one value each (as in SweepMain) and "--change=" with changes of the
+     *                months (as in ForkMain's branches); any other option is rejected
+     * @return variant described by the options
+     */
+    static ScenarioVariant parse(final List<String> options) {
+        ScenarioVariant variant = new ScenarioVariant();
+        for (String option : options) {
+            if (option.startsWith("--infrastructure=")) {
+                variant.setInfrastructureFactor(Double.parseDouble(
+                        option.substring("--infrastructure=".length())));
+            } else if (option.startsWith("--contract-length=")) {
+                variant.setContractLength(Integer.parseInt(
+                        option.substring("--contract-length=".length())));
+            } else if (option.startsWith("--strategies=")) {
+                variant.setStrategies(parseStrategies(
+                        option.substring("--strategies=".length())));
+            } else if (option.startsWith("--price=")) {
+                variant.setPriceFactor(Double.parseDouble(
+                        option.substring("--price=".length())));
+            } else if (option.startsWith("--change=")) {
+                addChanges(variant, option.substring("--change=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + option + ".");
+            }
+        }
+        return variant;
+    }
+
+    /**
+     * @param strategies strategies separated by "/", or INPUT
+     * @return the strategies, null to keep the input's
+     */
+    static EnergyChoiceStrategyType[] parseStrategies(final String strategies) {
+        if (strategies.equals(INPUT)) {
+            return null;
+        }
+        return Arrays.stream(strategies.split("/")).map(EnergyChoiceStrategyType::valueOf)
+                .toArray(EnergyChoiceStrategyType[]::new);
+    }
+
+    /**
+     * @param variant variant the changes are added to
+     * @param changes changes separated by commas: "producer:ID@TURN=ENERGY" changes the energy
+     *                per distributor of a producer and "distributor:ID@TURN=COST" the
+     *                infrastructure cost of a distributor
+     */
+    static void addChanges(final ScenarioVariant variant, final String changes) {
+        for (String change : changes.split(",")) {
+            String[] parts = change.split("[:@=]");
+            int id = Integer.parseInt(parts[ID_PART]);
+            int turn = Integer.parseInt(parts[TURN_PART]);
+            int value = Integer.parseInt(parts[VALUE_PART]);
+            if (parts[0].equals("producer")) {
+                variant.addProducerChange(turn, id, value);
+            } else if (parts[0].equals("distributor")) {
+                variant.addDistributorChange(turn, id, value);
+            } else {
+                throw new IllegalArgumentException("Unrecognized change " + change + ".");
+            }
+        }
+    }
+}
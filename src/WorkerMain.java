@@ -0,0 +1,93 @@
+import fileio.Reader;
+import fileio.Writer;
+import game.Game;
+import game.Scenario;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Worker process started by CoordinatorMain. It reads one job per line from its standard
+ * input and answers one line per job on its standard output, so the protocol needs nothing but
+ * the pipes of the process. The parsed inputs are kept in a small cache of Scenarios, so the
+ * variants of the same input only read it once.
+ *
+ * A job is "ID TAB INPUT TAB OUTPUT" followed by the options of its variant (separated by
+ * tabs, as read by VariantOptions); an empty output plays the game without writing it. The
+ * answer is "ID TAB DONE TAB OUTCOME" with the encoded GameOutcome, or "ID TAB FAILED TAB
+ * MESSAGE".
+ */
+public final class WorkerMain {
+    static final String SEPARATOR = "\t";
+    static final String DONE = "DONE";
+    static final String FAILED = "FAILED";
+    static final String[] WORKER_OPTIONS = {"--cache="};
+    private static final int DEFAULT_CACHED_SCENARIOS = 2;
+    private static final int FIRST_OPTION = 3;
+
+    private WorkerMain() { }
+
+    /**
+     * Serves jobs until its standard input is closed
+     *
+     * @param args optionally "--cache=N" (the number of parsed inputs kept, 2 by default)
+     *             followed by the options of Main applied to every game (except the
+     *             snapshot files of "--checkpoint=" and "--resume=")
+     * @throws Exception might error when reading the jobs
+     */
+    public static void main(final String[] args) throws Exception {
+        Main.rejectSingleGameOptions(args, 0);
+        Main.rejectUnknownOptions(args, 0, WORKER_OPTIONS);
+        int cached = DEFAULT_CACHED_SCENARIOS;
+        for (String arg : args) {
+            if (arg.startsWith("--cache=")) {
+                cached = Integer.parseInt(arg.substring("--cache=".length()));
+            }
+        }
+        int capacity = cached;
+        // Least recently used inputs are dropped first
+        Map<String, Scenario> scenarios = new LinkedHashMap<String, Scenario>(capacity, 1, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Scenario> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        // Only the answers go to the coordinator, everything else is reported on stderr
+        PrintStream answers = System.out;
+        System.setOut(System.err);
+        BufferedReader jobs = new BufferedReader(
+                new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = jobs.readLine()) != null) {
+            String[] fields = line.split(SEPARATOR, -1);
+            try {
+                Scenario scenario = scenarios.get(fields[1]);
+                if (scenario == null) {
+                    scenario = Scenario.of(new Reader(fields[1]).readValidGameData());
+                    scenarios.put(fields[1], scenario);
+                }
+
+                Game game = scenario.createGame(VariantOptions.parse(
+                        Arrays.asList(fields).subList(FIRST_OPTION, fields.length)));
+                Main.configure(game, args, 0);
+                game.startGame();
+                if (!fields[2].isEmpty()) {
+                    game.finishGame(new Writer(fields[2]));
+                }
+                answers.println(fields[0] + SEPARATOR + DONE + SEPARATOR
+                        + game.getOutcome().encode());
+            } catch (Exception e) {
+                e.printStackTrace();
+                answers.println(fields[0] + SEPARATOR + FAILED + SEPARATOR
+                        + String.valueOf(e).replace('\n', ' '));
+            }
+            answers.flush();
+        }
+    }
+}
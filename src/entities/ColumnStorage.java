@@ -0,0 +1,14 @@
+package entities;
+
+/**
+ * Memory the int columns of a game are kept in: the heap (HeapColumns) or a memory-mapped
+ * temporary file (MappedColumns). The contract ledger, the consumer table and their indices
+ * (and the expiry wheel of GameRules) take their columns from the storage of the game, so the
+ * choice of the store type moves all the per-consumer and per-contract state at once.
+ */
+public interface ColumnStorage {
+    /**
+     * @return new empty column
+     */
+    IntColumn newColumn();
+}
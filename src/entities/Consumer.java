@@ -2,7 +2,7 @@ package entities;
 
 public final class Consumer extends SpecialEntity {
     private final int monthlyIncome;
-    private Contract contract = null;
+    private int contract = ContractLedger.NONE;
 
     /**
      * Constructor for consumer
@@ -16,30 +16,42 @@ public final class Consumer extends SpecialEntity {
         this.monthlyIncome = monthlyIncome;
     }
 
+    /**
+     * @return consumer with the same state (the ledger is attached again by its store)
+     */
+    Consumer copy() {
+        Consumer copy = new Consumer(id, budget, monthlyIncome);
+        copy.isBankrupt = isBankrupt;
+        copy.contract = contract;
+        return copy;
+    }
+
     /**
      * Removes the consumer's contract if it is fully paid
+     *
+     * @return the handle of the removed contract, or ContractLedger.NONE
      */
-    @Override
-    public void purgePaidContract() {
-        if (contract == null) {
-            return;
-        }
-        if (contract.isPaid()) {
-            contract = null;
+    public int purgePaidContract() {
+        if (contract == ContractLedger.NONE || !ledger.isPaid(contract)) {
+            return ContractLedger.NONE;
         }
+        int paid = contract;
+        contract = ContractLedger.NONE;
+        return paid;
     }
 
     /**
      * Removes the consumer's contract if it was canceled (one party went bankrupt)
+     *
+     * @return the handle of the removed contract, or ContractLedger.NONE
      */
-    @Override
-    public void purgeCanceledContract() {
-        if (contract == null) {
-            return;
-        }
-        if (contract.isCanceled()) {
-            contract = null;
+    public int purgeCanceledContract() {
+        if (contract == ContractLedger.NONE || !ledger.isCanceled(contract)) {
+            return ContractLedger.NONE;
         }
+        int canceled = contract;
+        contract = ContractLedger.NONE;
+        return canceled;
     }
 
     /**
@@ -56,32 +68,45 @@ public final class Consumer extends SpecialEntity {
     @Override
     public void advanceLease() {
         // Check if the consumer can pay the lease
-        if (contract.getCurrentPrice() > budget) {
+        if (ledger.getCurrentPrice(contract) > budget) {
             // Check if the contract already has a penalty in order to file for bankruptcy
-            if (contract.hasPenalty()) {
+            if (ledger.hasPenalty(contract)) {
                 isBankrupt = true;
-                contract.terminateContract();
+                ledger.terminate(contract);
                 return;
             }
-            contract.advanceContract(false);
+            ledger.advance(contract, false);
         } else {
-            budget -= contract.getCurrentPrice();
-            contract.advanceContract(true);
+            budget -= ledger.getCurrentPrice(contract);
+            ledger.advance(contract, true);
         }
     }
 
     /**
-     * @param newContract to be assigned to the consumer
+     * @param newContract handle of the contract to be assigned to the consumer
      */
-    @Override
-    public void signContract(final Contract newContract) {
+    public void signContract(final int newContract) {
         contract = newContract;
     }
 
+    /**
+     * @return consumer's monthly income
+     */
+    public int getMonthlyIncome() {
+        return monthlyIncome;
+    }
+
+    /**
+     * @return handle of the consumer's contract, or ContractLedger.NONE
+     */
+    int getContract() {
+        return contract;
+    }
+
     /**
      * @return true if the consumer has a contract, otherwise false
      */
     public boolean signedContract() {
-        return contract != null;
+        return contract != ContractLedger.NONE;
     }
 }
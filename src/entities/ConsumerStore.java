@@ -0,0 +1,130 @@
+package entities;
+
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+
+/**
+ * Storage of all the consumers of a game, with the operations the game applies on them every
+ * month. Consumers are kept in the order they joined the game and each one has a dense index
+ * (its position); bankrupt consumers stay at their position and are skipped by the monthly
+ * operations. The operations work on ranges of indices [from, to), so that disjoint ranges can
+ * be processed at the same time.
+ */
+public interface ConsumerStore {
+    /**
+     * @return number of consumers (including bankrupt ones)
+     */
+    int size();
+
+    /**
+     * @param id external ID of a consumer
+     * @return dense index of the consumer, or -1 if there is no such consumer
+     */
+    int indexOf(int id);
+
+    /**
+     * Adds a consumer at the end of the store
+     *
+     * @param consumer to be added
+     */
+    void add(Consumer consumer);
+
+    /**
+     * Consumers get paid their salary and pay their lease (bankrupt consumers are skipped)
+     *
+     * @param from first index of the range
+     * @param to   index after the last one of the range
+     */
+    void advanceBudgets(int from, int to);
+
+    /**
+     * Takes the contract away from the consumer if it is fully paid. The contract is not
+     * released from the ledger, its handle is returned instead.
+     *
+     * @param index dense index of the consumer
+     * @return the handle of the removed contract, or ContractLedger.NONE
+     */
+    int purgePaidContract(int index);
+
+    /**
+     * Takes the canceled contracts away from the consumers in the range. The contracts are not
+     * released from the ledger, their handles are returned instead.
+     *
+     * @param from     first index of the range
+     * @param to       index after the last one of the range
+     * @param released list where the handles of the removed contracts are added
+     */
+    void purgeCanceledContracts(int from, int to, IntList released);
+
+    /**
+     * Finds the consumers of the range that are not bankrupt and do not have a contract
+     *
+     * @param from     first index of the range
+     * @param to       index after the last one of the range
+     * @param unsigned list where the indices of the consumers are added, in order
+     */
+    void findUnsigned(int from, int to, IntList unsigned);
+
+    /**
+     * @param index    dense index of the consumer
+     * @param contract handle of the contract signed by the consumer
+     */
+    void signContract(int index, int contract);
+
+    /**
+     * @param index dense index of the consumer
+     * @return handle of the consumer's contract, or ContractLedger.NONE
+     */
+    int getContract(int index);
+
+    /**
+     * @param index dense index of the consumer
+     * @return external ID of the consumer
+     */
+    int getID(int index);
+
+    /**
+     * @param index dense index of the consumer
+     * @return true if the consumer is bankrupt, otherwise false
+     */
+    boolean isBankrupt(int index);
+
+    /**
+     * @param index dense index of the consumer
+     * @return the consumer at the given index as a Consumer object (used for output)
+     */
+    Consumer view(int index);
+
+    /**
+     * @return the consumers as Consumer objects in the order of their IDs (used for output)
+     */
+    Iterable<Consumer> viewInIdOrder();
+
+    /**
+     * Copies the store for a branch of its game. The copy and the store change independently
+     * from then on.
+     *
+     * @param ledger copy of the ledger of the store (ContractLedger.fork), with the same
+     *               handles
+     * @return copy of the store, with the same consumers at the same indices
+     */
+    ConsumerStore fork(ContractLedger ledger);
+
+    /**
+     * Makes sure the consumers (and their contracts in the ledger) can be changed from several
+     * threads, by copying the state that a store made by fork still shares with the original
+     * one before a parallel phase (instead of on the first write, from any thread)
+     */
+    void prepareConcurrentUpdates();
+
+    /**
+     * Writes the consumers as columns, in index order: the count, then the IDs, the budgets,
+     * the monthly incomes, the bankruptcy flags (one byte each) and the contract handles. Every
+     * store writes the same format, ConsumerStoreFactory.readStore reads it into any store.
+     *
+     * @param output snapshot the consumers are written to
+     * @throws IOException in case of failure when writing
+     */
+    void writeTo(SnapshotOutput output) throws IOException;
+}
@@ -0,0 +1,124 @@
+package entities;
+
+import snapshot.SnapshotInput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ConsumerStoreFactory {
+    private static volatile ConsumerStoreFactory instance = null;
+
+    private ConsumerStoreFactory() {
+    }
+
+    /**
+     * Singleton method (Thread Safe Lazy Instantiation with double checked locking principle)
+     *
+     * @return instance of factory
+     */
+    public static ConsumerStoreFactory getInstance() {
+        if (instance == null) {
+            synchronized (ConsumerStoreFactory.class) {
+                if (instance == null) {
+                    instance = new ConsumerStoreFactory();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Creates the ledger of a game, in the storage used by the store type: a memory-mapped file
+     * for MAPPED, the heap otherwise
+     *
+     * @param type type of store the game uses
+     * @return new empty ledger
+     */
+    public ContractLedger createLedger(final ConsumerStoreType type) {
+        return new ContractLedger(createStorage(type));
+    }
+
+    /**
+     * Creates a ledger written by ContractLedger.writeTo, in the storage used by the store type
+     *
+     * @param type  type of store the game uses
+     * @param input snapshot the ledger is read from
+     * @return the ledger, with the same handles
+     * @throws IOException in case of failure when reading
+     */
+    public ContractLedger readLedger(final ConsumerStoreType type, final SnapshotInput input)
+            throws IOException {
+        return ContractLedger.readFrom(input, createStorage(type));
+    }
+
+    /**
+     * Generic Factory Method for consumer stores. The consumers are added one at a time while
+     * they are iterated, so the iterable can create them lazily (the whole population never
+     * has to be on the heap at once).
+     *
+     * @param type      type of store to be created
+     * @param consumers initial consumers added to the store
+     * @param ledger    ledger that holds the consumers' contracts (created by createLedger for
+     *                  the same type, the tables keep their columns in its storage)
+     * @return new store that contains the consumers
+     */
+    public ConsumerStore createStore(final ConsumerStoreType type,
+                                     final Iterable<Consumer> consumers,
+                                     final ContractLedger ledger) {
+        ConsumerStore store;
+        if (type == ConsumerStoreType.OBJECTS) {
+            store = new ObjectConsumerStore(ledger);
+        } else if (type == ConsumerStoreType.TABLE || type == ConsumerStoreType.MAPPED) {
+            store = new ConsumerTable(ledger);
+        } else {
+            throw new IllegalArgumentException("Unrecognized consumer store type.");
+        }
+
+        for (Consumer consumer : consumers) {
+            store.add(consumer);
+        }
+        return store;
+    }
+
+    /**
+     * Creates a store with the consumers written by ConsumerStore.writeTo (any store type can
+     * read what any other one wrote). The tables read the columns straight into their storage.
+     *
+     * @param type   type of store to be created
+     * @param input  snapshot the consumers are read from
+     * @param ledger ledger that holds the consumers' contracts (read by readLedger)
+     * @return new store that contains the consumers, at the same indices
+     * @throws IOException in case of failure when reading
+     */
+    public ConsumerStore readStore(final ConsumerStoreType type, final SnapshotInput input,
+                                   final ContractLedger ledger) throws IOException {
+        if (type != ConsumerStoreType.OBJECTS) {
+            return ConsumerTable.readFrom(input, ledger);
+        }
+
+        int size = input.readInt();
+        int[] ids = input.readInts(size, 0);
+        int[] budgets = input.readInts(size, 0);
+        int[] monthlyIncomes = input.readInts(size, 0);
+        byte[] bankrupt = input.readBytes(size, 0);
+        int[] contracts = input.readInts(size, 0);
+
+        List<Consumer> consumers = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            Consumer consumer = new Consumer(ids[i], budgets[i], monthlyIncomes[i]);
+            consumer.isBankrupt = bankrupt[i] != 0;
+            consumers.add(consumer);
+        }
+        ConsumerStore store = createStore(type, consumers, ledger);
+        for (int i = 0; i < size; ++i) {
+            store.signContract(i, contracts[i]);
+        }
+        return store;
+    }
+
+    private static ColumnStorage createStorage(final ConsumerStoreType type) {
+        return type == ConsumerStoreType.MAPPED ? new MappedColumns() : HeapColumns.getInstance();
+    }
+}
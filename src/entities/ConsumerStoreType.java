@@ -0,0 +1,10 @@
+package entities;
+
+/**
+ * Types of storage for the consumers of a game
+ */
+public enum ConsumerStoreType {
+    OBJECTS,
+    TABLE,
+    MAPPED
+}
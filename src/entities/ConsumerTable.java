@@ -0,0 +1,329 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Consumer store that keeps the consumers as a table of int columns (struct of arrays) indexed
+ * by the consumers' dense indices, so that the monthly updates run as tight loops over columns
+ * instead of following a reference to every consumer. The columns, the index of the IDs and
+ * their order are taken from the storage of the ledger: the heap for the TABLE store type, a
+ * memory-mapped file for the MAPPED one.
+ */
+public final class ConsumerTable implements ConsumerStore {
+    private static final int TRUE = 1;
+    private final IdIndex indices;
+    private final IdOrder idOrder;
+    private final ContractLedger ledger;
+    private final IntColumn ids;
+    private final IntColumn budgets;
+    private final IntColumn monthlyIncomes;
+    private final IntColumn bankrupt;
+    private final IntColumn contracts;
+    private int size = 0;
+
+    /**
+     * Constructor for the table
+     *
+     * @param ledger ledger that holds the consumers' contracts, its storage holds the columns
+     */
+    ConsumerTable(final ContractLedger ledger) {
+        this.ledger = ledger;
+        ColumnStorage storage = ledger.getStorage();
+        indices = new IdIndex(storage);
+        idOrder = new IdOrder(storage);
+        ids = storage.newColumn();
+        budgets = storage.newColumn();
+        monthlyIncomes = storage.newColumn();
+        bankrupt = storage.newColumn();
+        contracts = storage.newColumn();
+    }
+
+    private ConsumerTable(final ConsumerTable table, final ContractLedger ledger) {
+        this.ledger = ledger;
+        indices = table.indices.fork();
+        idOrder = table.idOrder.fork();
+        ids = table.ids.share();
+        budgets = table.budgets.share();
+        monthlyIncomes = table.monthlyIncomes.share();
+        bankrupt = table.bankrupt.share();
+        contracts = table.contracts.share();
+        size = table.size;
+    }
+
+    /**
+     * @return number of consumers (including bankrupt ones)
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id external ID of a consumer
+     * @return dense index of the consumer, or -1 if there is no such consumer
+     */
+    @Override
+    public int indexOf(final int id) {
+        return indices.get(id);
+    }
+
+    /**
+     * Copies the consumer's data into a new row of the table
+     *
+     * @param consumer to be added
+     */
+    @Override
+    public void add(final Consumer consumer) {
+        if (!indices.put(consumer.getID(), size)) {
+            throw new IllegalArgumentException("Duplicate entity ID " + consumer.getID() + ".");
+        }
+        idOrder.add(consumer.getID(), size);
+        ensureCapacity(size + 1);
+        ids.set(size, consumer.getID());
+        budgets.set(size, consumer.getBudget());
+        monthlyIncomes.set(size, consumer.getMonthlyIncome());
+        bankrupt.set(size, consumer.isBankrupt() ? TRUE : 0);
+        contracts.set(size, ContractLedger.NONE);
+        ++size;
+    }
+
+    /**
+     * Adds the monthly incomes to the budgets and pays the leases (same rules as
+     * Consumer.advanceBudget and Consumer.advanceLease)
+     *
+     * @param from first index of the range
+     * @param to   index after the last one of the range
+     */
+    @Override
+    public void advanceBudgets(final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            if (bankrupt.get(i) == TRUE) {
+                continue;
+            }
+
+            int budget = budgets.get(i) + monthlyIncomes.get(i);
+            int contract = contracts.get(i);
+            int price = ledger.getCurrentPrice(contract);
+            if (price > budget) {
+                budgets.set(i, budget);
+                // A second unpaid month files the consumer for bankruptcy
+                if (ledger.hasPenalty(contract)) {
+                    bankrupt.set(i, TRUE);
+                    ledger.terminate(contract);
+                    continue;
+                }
+                ledger.advance(contract, false);
+            } else {
+                budgets.set(i, budget - price);
+                ledger.advance(contract, true);
+            }
+        }
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return the handle of the removed contract, or ContractLedger.NONE
+     */
+    @Override
+    public int purgePaidContract(final int index) {
+        int contract = contracts.get(index);
+        if (contract == ContractLedger.NONE || !ledger.isPaid(contract)) {
+            return ContractLedger.NONE;
+        }
+        contracts.set(index, ContractLedger.NONE);
+        return contract;
+    }
+
+    /**
+     * @param from     first index of the range
+     * @param to       index after the last one of the range
+     * @param released list where the handles of the removed contracts are added
+     */
+    @Override
+    public void purgeCanceledContracts(final int from, final int to, final IntList released) {
+        for (int i = from; i < to; ++i) {
+            int contract = contracts.get(i);
+            if (contract != ContractLedger.NONE && ledger.isCanceled(contract)) {
+                released.add(contract);
+                contracts.set(i, ContractLedger.NONE);
+            }
+        }
+    }
+
+    /**
+     * @param from     first index of the range
+     * @param to       index after the last one of the range
+     * @param unsigned list where the indices of the consumers are added, in order
+     */
+    @Override
+    public void findUnsigned(final int from, final int to, final IntList unsigned) {
+        for (int i = from; i < to; ++i) {
+            if (bankrupt.get(i) != TRUE && contracts.get(i) == ContractLedger.NONE) {
+                unsigned.add(i);
+            }
+        }
+    }
+
+    /**
+     * @param index    dense index of the consumer
+     * @param contract handle of the contract signed by the consumer
+     */
+    @Override
+    public void signContract(final int index, final int contract) {
+        contracts.set(index, contract);
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return handle of the consumer's contract, or ContractLedger.NONE
+     */
+    @Override
+    public int getContract(final int index) {
+        return contracts.get(index);
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return external ID of the consumer
+     */
+    @Override
+    public int getID(final int index) {
+        return ids.get(index);
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return true if the consumer is bankrupt, otherwise false
+     */
+    @Override
+    public boolean isBankrupt(final int index) {
+        return bankrupt.get(index) == TRUE;
+    }
+
+    /**
+     * Creates a Consumer object with the current values of a row
+     *
+     * @param index dense index of the consumer
+     * @return consumer with the row's ID, budget, income and bankruptcy flag
+     */
+    @Override
+    public Consumer view(final int index) {
+        Consumer consumer = new Consumer(ids.get(index), budgets.get(index),
+                monthlyIncomes.get(index));
+        consumer.isBankrupt = bankrupt.get(index) == TRUE;
+        return consumer;
+    }
+
+    /**
+     * The rows are viewed one at a time, while iterating
+     *
+     * @return the consumers in the order of their IDs
+     */
+    @Override
+    public Iterable<Consumer> viewInIdOrder() {
+        return () -> new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < idOrder.size();
+            }
+
+            @Override
+            public Consumer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No consumers left.");
+                }
+                return view(idOrder.get(position++));
+            }
+        };
+    }
+
+    /**
+     * The columns, the index and the order are shared with this table until one of the two
+     * writes them (see IntColumn.share)
+     *
+     * @param ledger copy of the ledger of the table
+     * @return copy of the table
+     */
+    @Override
+    public ConsumerTable fork(final ContractLedger ledger) {
+        return new ConsumerTable(this, ledger);
+    }
+
+    /**
+     * Copies the shared columns the range operations write: the budgets, the bankruptcy
+     * flags, the contracts and the ones of the ledger. The other columns stay shared.
+     */
+    @Override
+    public void prepareConcurrentUpdates() {
+        budgets.own();
+        bankrupt.own();
+        contracts.own();
+        ledger.prepareConcurrentUpdates();
+    }
+
+    /**
+     * Writes the columns one after the other
+     *
+     * @param output snapshot the consumers are written to
+     * @throws IOException in case of failure when writing
+     */
+    @Override
+    public void writeTo(final SnapshotOutput output) throws IOException {
+        output.writeInt(size);
+        ids.writeTo(output, size);
+        budgets.writeTo(output, size);
+        monthlyIncomes.writeTo(output, size);
+        for (int i = 0; i < size; ++i) {
+            output.writeBoolean(bankrupt.get(i) == TRUE);
+        }
+        contracts.writeTo(output, size);
+    }
+
+    /**
+     * Creates a table with the consumers written by writeTo, read column by column straight
+     * into the storage of the ledger (no Consumer is created)
+     *
+     * @param input  snapshot the consumers are read from
+     * @param ledger ledger that holds the consumers' contracts
+     * @return new table that contains the consumers, at the same indices
+     * @throws IOException in case of failure when reading
+     */
+    static ConsumerTable readFrom(final SnapshotInput input, final ContractLedger ledger)
+            throws IOException {
+        ConsumerTable table = new ConsumerTable(ledger);
+        int size = input.readInt();
+        table.ids.readFrom(input, size);
+        for (int i = 0; i < size; ++i) {
+            int id = table.ids.get(i);
+            if (!table.indices.put(id, i)) {
+                throw new IOException("Duplicate consumer ID " + id + " in the snapshot.");
+            }
+            table.idOrder.add(id, i);
+        }
+        table.budgets.readFrom(input, size);
+        table.monthlyIncomes.readFrom(input, size);
+        table.bankrupt.ensureCapacity(size);
+        for (int i = 0; i < size; ++i) {
+            table.bankrupt.set(i, input.readBoolean() ? TRUE : 0);
+        }
+        table.contracts.readFrom(input, size);
+        table.size = size;
+        return table;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        ids.ensureCapacity(capacity);
+        budgets.ensureCapacity(capacity);
+        monthlyIncomes.ensureCapacity(capacity);
+        bankrupt.ensureCapacity(capacity);
+        contracts.ensureCapacity(capacity);
+    }
+}
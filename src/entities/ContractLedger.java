@@ -0,0 +1,427 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Central storage of all the contracts of a game. Every contract is a handle (an int) that
+ * indexes int columns: contractor (the distributor's dense index), contractee (the consumer's
+ * ID), price, remaining months, penalty and status. The columns are kept in the storage of the
+ * game (the heap, or a mapped file for the MAPPED store type), only the per-distributor values
+ * stay in heap arrays. The live contracts of every
+ * distributor form a doubly linked list through the handles, in signing order, so a contract
+ * can be removed in O(1) and a distributor never walks removed contracts. Removed handles are
+ * reused for new contracts, so signing does not allocate objects. Every distributor also has a
+ * running revenue: the sum of the prices of its live contracts without a penalty, kept up to
+ * date when contracts are signed, penalized, cleared or released.
+ */
+public final class ContractLedger {
+    /**
+     * Value used for a missing contract
+     */
+    public static final int NONE = -1;
+    private static final int LIVE = 1;
+    private static final int PAID = 2;
+    private static final int CANCELED = 4;
+    private static final float PENALTY_MARGIN = 1.2f;
+    /*
+    The consumers of different partitions may advance contracts of the same distributor at the
+    same time (parallel mode), so the revenues are changed through atomic adds
+     */
+    private static final VarHandle REVENUES = MethodHandles.arrayElementVarHandle(int[].class);
+    private final MarkedIndices changedContractors = new MarkedIndices();
+    private final ColumnStorage storage;
+    private final IntColumn contractors;
+    private final IntColumn contractees;
+    private final IntColumn prices;
+    private final IntColumn remainedMonths;
+    private final IntColumn penalties;
+    private final IntColumn statuses;
+    private final IntColumn next;
+    private final IntColumn previous;
+    private int[] heads = new int[0];
+    private int[] tails = new int[0];
+    private int[] counts = new int[0];
+    private int[] revenues = new int[0];
+    private int capacity = 0;
+    private int freeHead = NONE;
+
+    /**
+     * Constructor for the ledger (see ConsumerStoreFactory.createLedger)
+     *
+     * @param storage storage of the contract columns
+     */
+    ContractLedger(final ColumnStorage storage) {
+        this.storage = storage;
+        contractors = storage.newColumn();
+        contractees = storage.newColumn();
+        prices = storage.newColumn();
+        remainedMonths = storage.newColumn();
+        penalties = storage.newColumn();
+        statuses = storage.newColumn();
+        next = storage.newColumn();
+        previous = storage.newColumn();
+    }
+
+    private ContractLedger(final ContractLedger ledger) {
+        storage = ledger.storage;
+        contractors = ledger.contractors.share();
+        contractees = ledger.contractees.share();
+        prices = ledger.prices.share();
+        remainedMonths = ledger.remainedMonths.share();
+        penalties = ledger.penalties.share();
+        statuses = ledger.statuses.share();
+        next = ledger.next.share();
+        previous = ledger.previous.share();
+        heads = ledger.heads.clone();
+        tails = ledger.tails.clone();
+        counts = ledger.counts.clone();
+        revenues = ledger.revenues.clone();
+        capacity = ledger.capacity;
+        freeHead = ledger.freeHead;
+    }
+
+    /**
+     * Copies the ledger for a branch of its game. The columns are shared with this ledger
+     * until one of the two writes them (see IntColumn.share), only the per-distributor arrays
+     * are copied. The copy starts without changed contractors, like a ledger read from a
+     * snapshot.
+     *
+     * @return copy of the ledger, with the same handles
+     */
+    public ContractLedger fork() {
+        return new ContractLedger(this);
+    }
+
+    /**
+     * Copies the columns the consumers change while they advance their contracts (remaining
+     * months, penalties and statuses) if they are still shared, so that the consumers of a
+     * parallel game can advance them from several threads
+     */
+    void prepareConcurrentUpdates() {
+        remainedMonths.own();
+        penalties.own();
+        statuses.own();
+    }
+
+    /**
+     * Creates a contract and appends it to the contracts of the distributor
+     *
+     * @param contractor     dense index of the distributor
+     * @param contracteeID   ID of the consumer
+     * @param price          contract's price
+     * @param contractMonths contract's period
+     * @return handle of the new contract
+     */
+    public int sign(final int contractor, final int contracteeID, final int price,
+                    final int contractMonths) {
+        ensureContractor(contractor);
+        int handle = allocate();
+
+        contractors.set(handle, contractor);
+        contractees.set(handle, contracteeID);
+        prices.set(handle, price);
+        remainedMonths.set(handle, contractMonths);
+        penalties.set(handle, 0);
+        statuses.set(handle, LIVE);
+
+        // Links the contract at the end of the distributor's list
+        previous.set(handle, tails[contractor]);
+        next.set(handle, NONE);
+        if (tails[contractor] == NONE) {
+            heads[contractor] = handle;
+        } else {
+            next.set(tails[contractor], handle);
+        }
+        tails[contractor] = handle;
+        ++counts[contractor];
+        revenues[contractor] += price;
+        changedContractors.mark(contractor);
+        return handle;
+    }
+
+    /**
+     * Removes a contract from its distributor's list and frees its handle
+     *
+     * @param handle contract to be removed
+     */
+    public void release(final int handle) {
+        int contractor = contractors.get(handle);
+        int before = previous.get(handle);
+        int after = next.get(handle);
+        if (before == NONE) {
+            heads[contractor] = after;
+        } else {
+            next.set(before, after);
+        }
+        if (after == NONE) {
+            tails[contractor] = before;
+        } else {
+            previous.set(after, before);
+        }
+        --counts[contractor];
+        if (penalties.get(handle) == 0) {
+            revenues[contractor] -= prices.get(handle);
+        }
+        changedContractors.mark(contractor);
+
+        statuses.set(handle, 0);
+        next.set(handle, freeHead);
+        freeHead = handle;
+    }
+
+    /**
+     * Removes one month from the contract, adds/removes a penalty if necessary and checks if
+     * the contract reached its end
+     *
+     * @param handle         contract to be advanced
+     * @param contracteePaid true if contractee paid, otherwise false
+     */
+    void advance(final int handle, final boolean contracteePaid) {
+        int price = prices.get(handle);
+        boolean hadPenalty = penalties.get(handle) != 0;
+        int penalty;
+        if (!contracteePaid) {
+            // Contract could not be paid this month, create penalty
+            penalty = (int) Math.round(Math.floor(PENALTY_MARGIN * price));
+        } else {
+            // Contract was paid, any debt is gone
+            penalty = 0;
+        }
+        penalties.set(handle, penalty);
+        int months = remainedMonths.get(handle) - 1;
+        remainedMonths.set(handle, months);
+
+        // The revenue only counts the contracts without a penalty
+        if (hadPenalty != (penalty != 0)) {
+            REVENUES.getAndAdd(revenues, contractors.get(handle), hadPenalty ? price : -price);
+        }
+
+        // Checks if the contract is finished
+        if (months <= 0 && penalty == 0) {
+            statuses.set(handle, statuses.get(handle) | PAID);
+        }
+    }
+
+    /**
+     * Marks the contract as canceled (one party is bankrupt)
+     *
+     * @param handle contract to be canceled
+     */
+    void terminate(final int handle) {
+        statuses.set(handle, statuses.get(handle) | CANCELED);
+    }
+
+    /**
+     * @param handle contract
+     * @return price of contract with penalties
+     */
+    int getCurrentPrice(final int handle) {
+        return prices.get(handle) + penalties.get(handle);
+    }
+
+    /**
+     * @param handle contract
+     * @return original price of contract
+     */
+    public int getOriginalPrice(final int handle) {
+        return prices.get(handle);
+    }
+
+    /**
+     * @param handle contract
+     * @return remaining months of the contract
+     */
+    public int getRemainedMonths(final int handle) {
+        return remainedMonths.get(handle);
+    }
+
+    /**
+     * @param handle contract
+     * @return contractee ID
+     */
+    public int getContracteeID(final int handle) {
+        return contractees.get(handle);
+    }
+
+    /**
+     * @param handle contract
+     * @return true if the contract has a penalty
+     */
+    boolean hasPenalty(final int handle) {
+        return penalties.get(handle) != 0;
+    }
+
+    /**
+     * @param handle contract
+     * @return true if the contract is fully paid, otherwise false
+     */
+    boolean isPaid(final int handle) {
+        return (statuses.get(handle) & PAID) != 0;
+    }
+
+    /**
+     * @param handle contract
+     * @return true if the contract is canceled, otherwise false
+     */
+    boolean isCanceled(final int handle) {
+        return (statuses.get(handle) & CANCELED) != 0;
+    }
+
+    /**
+     * @param contractor dense index of the distributor
+     * @return first contract of the distributor (the oldest), or NONE
+     */
+    public int first(final int contractor) {
+        return contractor < heads.length ? heads[contractor] : NONE;
+    }
+
+    /**
+     * @param handle contract
+     * @return the contract signed after it with the same distributor, or NONE
+     */
+    public int next(final int handle) {
+        return next.get(handle);
+    }
+
+    /**
+     * @param contractor dense index of the distributor
+     * @return number of live contracts of the distributor
+     */
+    public int count(final int contractor) {
+        return contractor < counts.length ? counts[contractor] : 0;
+    }
+
+    /**
+     * @param contractor dense index of the distributor
+     * @return sum of the prices of the distributor's live contracts that have no penalty
+     */
+    int revenue(final int contractor) {
+        return contractor < revenues.length ? revenues[contractor] : 0;
+    }
+
+    /**
+     * The marks are kept until the caller clears them (a ledger read from a snapshot starts
+     * with none)
+     *
+     * @return dense indices of the distributors whose number of contracts changed
+     */
+    public MarkedIndices getChangedContractors() {
+        return changedContractors;
+    }
+
+    /**
+     * @return storage of the contract columns, also used by the consumer table and the expiry
+     * wheel of the game
+     */
+    public ColumnStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Writes every column of the ledger, so the handles stay valid once it is read back
+     *
+     * @param output snapshot the ledger is written to
+     * @throws IOException in case of failure when writing
+     */
+    public void writeTo(final SnapshotOutput output) throws IOException {
+        output.writeInt(capacity);
+        output.writeInt(freeHead);
+        contractors.writeTo(output, capacity);
+        contractees.writeTo(output, capacity);
+        prices.writeTo(output, capacity);
+        remainedMonths.writeTo(output, capacity);
+        penalties.writeTo(output, capacity);
+        // The statuses fit in a byte
+        for (int handle = 0; handle < capacity; ++handle) {
+            output.writeByte((byte) statuses.get(handle));
+        }
+        next.writeTo(output, capacity);
+        previous.writeTo(output, capacity);
+        output.writeInt(heads.length);
+        output.writeInts(heads, heads.length);
+        output.writeInts(tails, tails.length);
+        output.writeInts(counts, counts.length);
+    }
+
+    /**
+     * Creates a ledger written by writeTo (see ConsumerStoreFactory.readLedger), the columns
+     * are read straight into the storage
+     *
+     * @param input   snapshot the ledger is read from
+     * @param storage storage of the contract columns
+     * @return the ledger, with the same handles
+     * @throws IOException in case of failure when reading
+     */
+    static ContractLedger readFrom(final SnapshotInput input, final ColumnStorage storage)
+            throws IOException {
+        ContractLedger ledger = new ContractLedger(storage);
+        ledger.capacity = input.readInt();
+        ledger.freeHead = input.readInt();
+        int size = ledger.capacity;
+        ledger.contractors.readFrom(input, size);
+        ledger.contractees.readFrom(input, size);
+        ledger.prices.readFrom(input, size);
+        ledger.remainedMonths.readFrom(input, size);
+        ledger.penalties.readFrom(input, size);
+        ledger.statuses.ensureCapacity(size);
+        for (int handle = 0; handle < size; ++handle) {
+            ledger.statuses.set(handle, input.readByte());
+        }
+        ledger.next.readFrom(input, size);
+        ledger.previous.readFrom(input, size);
+        int contractors = input.readInt();
+        ledger.heads = input.readInts(contractors, 0);
+        ledger.tails = input.readInts(contractors, 0);
+        ledger.counts = input.readInts(contractors, 0);
+
+        // The revenues are not written, they follow from the contracts
+        ledger.revenues = new int[contractors];
+        for (int contractor = 0; contractor < contractors; ++contractor) {
+            for (int handle = ledger.heads[contractor]; handle != NONE;
+                 handle = ledger.next.get(handle)) {
+                if (ledger.penalties.get(handle) == 0) {
+                    ledger.revenues[contractor] += ledger.prices.get(handle);
+                }
+            }
+        }
+        return ledger;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int handle = freeHead;
+            freeHead = next.get(handle);
+            return handle;
+        }
+
+        int size = capacity + 1;
+        contractors.ensureCapacity(size);
+        contractees.ensureCapacity(size);
+        prices.ensureCapacity(size);
+        remainedMonths.ensureCapacity(size);
+        penalties.ensureCapacity(size);
+        statuses.ensureCapacity(size);
+        next.ensureCapacity(size);
+        previous.ensureCapacity(size);
+        return capacity++;
+    }
+
+    private void ensureContractor(final int contractor) {
+        if (contractor >= heads.length) {
+            int oldLength = heads.length;
+            int newLength = Math.max(contractor + 1, 2 * oldLength);
+            heads = Arrays.copyOf(heads, newLength);
+            tails = Arrays.copyOf(tails, newLength);
+            counts = Arrays.copyOf(counts, newLength);
+            revenues = Arrays.copyOf(revenues, newLength);
+            Arrays.fill(heads, oldLength, newLength, NONE);
+            Arrays.fill(tails, oldLength, newLength, NONE);
+        }
+    }
+}
@@ -2,16 +2,21 @@ package entities;
 
 import observer.Observable;
 import observer.Observer;
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
 import strategies.EnergyChoiceStrategyType;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
 
 
 public final class Distributor extends SpecialEntity implements Observer {
     private final int contractLength;
-    private final List<Contract> contracts = new ArrayList<>();
     private final List<Producer> producers = new ArrayList<>();
     private final int energyNeeded;
     private final EnergyChoiceStrategyType strategy;
@@ -40,28 +45,12 @@ public final class Distributor extends SpecialEntity implements Observer {
         this.strategy = EnergyChoiceStrategyType.valueOf(strategy);
     }
 
-    /**
-     * Removes the fully paid contracts from the distributor
-     */
-    @Override
-    public void purgePaidContract() {
-        contracts.removeIf(Contract::isPaid);
-    }
-
-    /**
-     * Removes the canceled contracts from the distributor
-     */
-    @Override
-    public void purgeCanceledContract() {
-        contracts.removeIf(Contract::isCanceled);
-    }
-
     /**
      * Updates distributor's budget by subtracting his monthly expenses
      */
     @Override
     public void advanceBudget() {
-        budget -= (infrastructureCost + productionCost * contracts.size());
+        budget -= (infrastructureCost + productionCost * ledger.count(getIndex()));
     }
 
     /**
@@ -69,17 +58,16 @@ public final class Distributor extends SpecialEntity implements Observer {
      */
     @Override
     public void advanceLease() {
-        // Add all contracts' prices to the budget if they were paid this month
-        for (Contract contract : contracts) {
-            if (!contract.hasPenalty()) {
-                budget += contract.getCurrentPrice();
-            }
-        }
+        // Add the prices of the contracts paid this month (a running sum kept by the ledger)
+        budget += ledger.revenue(getIndex());
 
         // Checks if the budget is positive, otherwise file for bankruptcy
         isBankrupt = budget < 0;
         if (isBankrupt) {
-            contracts.forEach(Contract::terminateContract);
+            for (int contract = ledger.first(getIndex()); contract != ContractLedger.NONE;
+                 contract = ledger.next(contract)) {
+                ledger.terminate(contract);
+            }
         }
     }
 
@@ -113,14 +101,16 @@ public final class Distributor extends SpecialEntity implements Observer {
         final float profitMargin = 0.2f;
         int profit = (int) Math.round(Math.floor(profitMargin * productionCost));
 
+        int clients = ledger.count(getIndex());
+
         // Check if this month there are no clients associated with the distributor
-        if (contracts.isEmpty()) {
+        if (clients == 0) {
             contractCost = infrastructureCost + productionCost + profit;
             return;
         }
 
         contractCost =
-                (int) Math.round(Math.floor(infrastructureCost / contracts.size())
+                (int) Math.round(Math.floor(infrastructureCost / clients)
                         + productionCost + profit);
     }
 
@@ -139,11 +129,10 @@ public final class Distributor extends SpecialEntity implements Observer {
     }
 
     /**
-     * @param contract to be added to the list of distributor's contracts
+     * @return distributor's current infrastructure cost
      */
-    @Override
-    public void signContract(final Contract contract) {
-        contracts.add(contract);
+    public int getInfrastructureCost() {
+        return infrastructureCost;
     }
 
     /**
@@ -161,10 +150,31 @@ public final class Distributor extends SpecialEntity implements Observer {
     }
 
     /**
-     * @return unmodifiable list of contracts
+     * The copies are created one at a time while iterating the ledger, so the contracts can be
+     * written without keeping a list of them
+     *
+     * @return copies of the distributor's contracts from the ledger, in signing order
      */
-    public List<Contract> getContracts() {
-        return Collections.unmodifiableList(contracts);
+    public Iterable<Contract> getContracts() {
+        return () -> new Iterator<>() {
+            private int contract = ledger.first(getIndex());
+
+            @Override
+            public boolean hasNext() {
+                return contract != ContractLedger.NONE;
+            }
+
+            @Override
+            public Contract next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Contract copy = new Contract(id, ledger.getContracteeID(contract),
+                        ledger.getOriginalPrice(contract), ledger.getRemainedMonths(contract));
+                contract = ledger.next(contract);
+                return copy;
+            }
+        };
     }
 
     /**
@@ -197,6 +207,86 @@ public final class Distributor extends SpecialEntity implements Observer {
         isAnyProducerAltered = false;
     }
 
+    /**
+     * Writes the distributor; its producers are written as IDs and its contracts stay in the
+     * ledger, which is written separately
+     *
+     * @param output snapshot the distributor is written to
+     * @throws IOException in case of failure when writing
+     */
+    public void writeTo(final SnapshotOutput output) throws IOException {
+        output.writeInt(id);
+        output.writeInt(getIndex());
+        output.writeInt(contractLength);
+        output.writeInt(budget);
+        output.writeInt(infrastructureCost);
+        output.writeInt(energyNeeded);
+        output.writeInt(strategy.ordinal());
+        output.writeInt(contractCost);
+        output.writeInt(productionCost);
+        output.writeBoolean(isBankrupt);
+        output.writeBoolean(isAnyProducerAltered);
+        output.writeInt(producers.size());
+        for (Producer producer : producers) {
+            output.writeInt(producer.getID());
+        }
+    }
+
+    /**
+     * Creates a distributor written by writeTo. The distributor keeps its dense index, so
+     * that the contracts of the ledger still point to it.
+     *
+     * @param input         snapshot the distributor is read from
+     * @param producersByID finds the producers of the distributor by their IDs
+     * @return the distributor
+     * @throws IOException in case of failure when reading
+     */
+    public static Distributor readFrom(final SnapshotInput input,
+                                       final IntFunction<Producer> producersByID)
+            throws IOException {
+        int id = input.readInt();
+        int index = input.readInt();
+        int contractLength = input.readInt();
+        int budget = input.readInt();
+        int infrastructureCost = input.readInt();
+        int energyNeeded = input.readInt();
+        EnergyChoiceStrategyType strategy = EnergyChoiceStrategyType.values()[input.readInt()];
+
+        Distributor distributor = new Distributor(id, contractLength, budget,
+                infrastructureCost, energyNeeded, strategy.name());
+        distributor.setIndex(index);
+        distributor.contractCost = input.readInt();
+        distributor.productionCost = input.readInt();
+        distributor.isBankrupt = input.readBoolean();
+        distributor.isAnyProducerAltered = input.readBoolean();
+        for (int i = input.readInt(); i > 0; --i) {
+            distributor.producers.add(producersByID.apply(input.readInt()));
+        }
+        return distributor;
+    }
+
+    /**
+     * Copies the distributor for a branch of its game; the copy keeps the dense index, so that
+     * the contracts of the ledger's copy still point to it (the ledger is attached again by
+     * the game)
+     *
+     * @param producersByID finds the copies of the distributor's producers by their IDs
+     * @return the copy
+     */
+    public Distributor copy(final IntFunction<Producer> producersByID) {
+        Distributor copy = new Distributor(id, contractLength, budget, infrastructureCost,
+                energyNeeded, strategy.name());
+        copy.setIndex(getIndex());
+        copy.contractCost = contractCost;
+        copy.productionCost = productionCost;
+        copy.isBankrupt = isBankrupt;
+        copy.isAnyProducerAltered = isAnyProducerAltered;
+        for (Producer producer : producers) {
+            copy.producers.add(producersByID.apply(producer.getID()));
+        }
+        return copy;
+    }
+
     /**
      * @param observable subject used by the observer's method
      * @param arg        used to store the ID of the producer that has been altered
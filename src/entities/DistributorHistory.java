@@ -0,0 +1,398 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Monthly history of the distributors assigned to a producer. Only the current month is kept as
+ * a full set; every finished month is stored as the distributors added and removed compared to
+ * the month before it, and a full copy (checkpoint) is stored every few months so that any month
+ * can be rebuilt without replaying the whole history.
+ *
+ * The finished months never change, so the branches of a game share them: a fork moves them
+ * into a base history that is never written again, and both copies store only the months
+ * they finish afterwards (their arrays start at the first month after the base).
+ */
+public final class DistributorHistory {
+    private static final int CHECKPOINT_INTERVAL = 32;
+    private static final int INITIAL_CAPACITY = 8;
+    private final SortedIntSet current = new SortedIntSet();
+    private final SortedIntSet pendingAdded = new SortedIntSet();
+    private final SortedIntSet pendingRemoved = new SortedIntSet();
+    // Finished month m added [offsets[2m], offsets[2m+1]) and removed up to offsets[2m+2]
+    private int[] deltaIds = new int[INITIAL_CAPACITY];
+    private int[] deltaOffsets = new int[INITIAL_CAPACITY + 1];
+    private int deltaSize = 0;
+    // Checkpoint c holds the full set of month c * CHECKPOINT_INTERVAL
+    private int[] checkpointIds = new int[INITIAL_CAPACITY];
+    private int[] checkpointOffsets = new int[INITIAL_CAPACITY + 1];
+    private int checkpointSize = 0;
+    private int checkpoints = 0;
+    private int months = 1;
+    // The months before baseMonths and the checkpoints before baseCheckpoints are in the base
+    private DistributorHistory base = null;
+    private int baseMonths = 0;
+    private int baseCheckpoints = 0;
+
+    /**
+     * Reserves space for the deltas of the given amount of months
+     *
+     * @param expectedMonths number of months the game is expected to last
+     */
+    void reserve(final int expectedMonths) {
+        int length = 2 * (expectedMonths - baseMonths) + 1;
+        if (length > deltaOffsets.length) {
+            deltaOffsets = Arrays.copyOf(deltaOffsets, length);
+        }
+    }
+
+    /**
+     * Adds a distributor to the current month
+     *
+     * @param distributorId distributor to be added
+     */
+    void add(final int distributorId) {
+        if (current.add(distributorId) && !pendingRemoved.remove(distributorId)) {
+            pendingAdded.add(distributorId);
+        }
+    }
+
+    /**
+     * Removes a distributor from the current month
+     *
+     * @param distributorId distributor to be removed
+     */
+    void remove(final int distributorId) {
+        if (current.remove(distributorId) && !pendingAdded.remove(distributorId)) {
+            pendingRemoved.add(distributorId);
+        }
+    }
+
+    /**
+     * Finishes the current month (storing only its changes) and starts the next one with the
+     * same distributors
+     */
+    void advance() {
+        int month = months - 1;
+        int local = month - baseMonths;
+
+        ensureDeltaCapacity(pendingAdded.size() + pendingRemoved.size());
+        deltaOffsets[2 * local] = deltaSize;
+        deltaSize = append(deltaIds, deltaSize, pendingAdded);
+        deltaOffsets[2 * local + 1] = deltaSize;
+        deltaSize = append(deltaIds, deltaSize, pendingRemoved);
+        deltaOffsets[2 * local + 2] = deltaSize;
+        pendingAdded.clear();
+        pendingRemoved.clear();
+
+        if (month % CHECKPOINT_INTERVAL == 0) {
+            writeCheckpoint();
+        }
+        ++months;
+    }
+
+    /**
+     * Copies the history for a branch of the game. The finished months become the base of both
+     * histories (unless they already are), only the current month is copied.
+     *
+     * @return copy of the history
+     */
+    DistributorHistory fork() {
+        if (months - 1 > baseMonths) {
+            DistributorHistory finished = new DistributorHistory();
+            finished.deltaIds = deltaIds;
+            finished.deltaOffsets = deltaOffsets;
+            finished.deltaSize = deltaSize;
+            finished.checkpointIds = checkpointIds;
+            finished.checkpointOffsets = checkpointOffsets;
+            finished.checkpointSize = checkpointSize;
+            finished.checkpoints = checkpoints;
+            finished.months = months;
+            finished.base = base;
+            finished.baseMonths = baseMonths;
+            finished.baseCheckpoints = baseCheckpoints;
+            rebase(finished);
+        }
+
+        DistributorHistory copy = new DistributorHistory();
+        copy.current.copyFrom(current);
+        copy.pendingAdded.copyFrom(pendingAdded);
+        copy.pendingRemoved.copyFrom(pendingRemoved);
+        copy.months = months;
+        copy.rebase(base);
+        return copy;
+    }
+
+    /**
+     * Writes the whole history, the changes of the current month included (the base of a
+     * forked history is copied in first, so the format does not change)
+     *
+     * @param output snapshot the history is written to
+     * @throws IOException in case of failure when writing
+     */
+    void writeTo(final SnapshotOutput output) throws IOException {
+        if (base != null) {
+            flatten();
+        }
+        output.writeInt(months);
+        current.writeTo(output);
+        pendingAdded.writeTo(output);
+        pendingRemoved.writeTo(output);
+        output.writeInt(deltaSize);
+        output.writeInts(deltaIds, deltaSize);
+        output.writeInts(deltaOffsets, 2 * months - 1);
+        output.writeInt(checkpoints);
+        output.writeInt(checkpointSize);
+        output.writeInts(checkpointIds, checkpointSize);
+        output.writeInts(checkpointOffsets, checkpoints + 1);
+    }
+
+    /**
+     * Replaces the history with the one of a snapshot
+     *
+     * @param input snapshot the history is read from
+     * @throws IOException in case of failure when reading
+     */
+    void readFrom(final SnapshotInput input) throws IOException {
+        months = input.readInt();
+        current.readFrom(input);
+        pendingAdded.readFrom(input);
+        pendingRemoved.readFrom(input);
+        deltaSize = input.readInt();
+        deltaIds = input.readInts(deltaSize, INITIAL_CAPACITY);
+        deltaOffsets = input.readInts(2 * months - 1, INITIAL_CAPACITY + 1);
+        checkpoints = input.readInt();
+        checkpointSize = input.readInt();
+        checkpointIds = input.readInts(checkpointSize, INITIAL_CAPACITY);
+        checkpointOffsets = input.readInts(checkpoints + 1, INITIAL_CAPACITY + 1);
+        base = null;
+        baseMonths = 0;
+        baseCheckpoints = 0;
+    }
+
+    /**
+     * @param distributorId distributor to look for
+     * @return true if the distributor is assigned in the current month, otherwise false
+     */
+    public boolean contains(final int distributorId) {
+        return current.contains(distributorId);
+    }
+
+    /**
+     * @return number of distributors in the current month
+     */
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * @return number of months in the history (the last one being the current month)
+     */
+    public int getMonths() {
+        return months;
+    }
+
+    /**
+     * Rebuilds the distributors of a month from the closest checkpoint before it
+     *
+     * @param month month to be rebuilt
+     * @return IDs of the distributors in ascending order
+     */
+    public int[] getMonth(final int month) {
+        return monthsFrom(month).next();
+    }
+
+    /**
+     * Iterates the months in order, starting from the given one. Only the first month is rebuilt
+     * from a checkpoint, every next month is obtained by applying its changes.
+     *
+     * @param month first month to be returned
+     * @return iterator over the IDs of the distributors (ascending) of every month
+     */
+    public Iterator<int[]> monthsFrom(final int month) {
+        if (month < 0 || month >= months) {
+            throw new IndexOutOfBoundsException("Month " + month + " out of " + months + ".");
+        }
+
+        return new Iterator<>() {
+            private final SortedIntSet state = restore(month);
+            private int next = month;
+
+            @Override
+            public boolean hasNext() {
+                return next < months;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (next == months - 1) {
+                    ++next;
+                    return current.toArray();
+                }
+                if (next > month) {
+                    applyDelta(state, next);
+                }
+                ++next;
+                return state.toArray();
+            }
+        };
+    }
+
+    private SortedIntSet restore(final int month) {
+        SortedIntSet state = new SortedIntSet();
+        if (month == months - 1) {
+            return state;
+        }
+
+        int checkpoint = month / CHECKPOINT_INTERVAL;
+        DistributorHistory owner = checkpointOwner(checkpoint);
+        int local = checkpoint - owner.baseCheckpoints;
+        for (int i = owner.checkpointOffsets[local]; i < owner.checkpointOffsets[local + 1];
+             ++i) {
+            state.add(owner.checkpointIds[i]);
+        }
+        for (int m = checkpoint * CHECKPOINT_INTERVAL + 1; m <= month; ++m) {
+            applyDelta(state, m);
+        }
+        return state;
+    }
+
+    private void applyDelta(final SortedIntSet state, final int month) {
+        DistributorHistory owner = deltaOwner(month);
+        int[] offsets = owner.deltaOffsets;
+        int local = month - owner.baseMonths;
+        for (int i = offsets[2 * local]; i < offsets[2 * local + 1]; ++i) {
+            state.add(owner.deltaIds[i]);
+        }
+        for (int i = offsets[2 * local + 1]; i < offsets[2 * local + 2]; ++i) {
+            state.remove(owner.deltaIds[i]);
+        }
+    }
+
+    /**
+     * @param month finished month
+     * @return the history (this one or one of its bases) that stores the month's changes
+     */
+    private DistributorHistory deltaOwner(final int month) {
+        DistributorHistory owner = this;
+        while (month < owner.baseMonths) {
+            owner = owner.base;
+        }
+        return owner;
+    }
+
+    /**
+     * @param checkpoint position of a checkpoint
+     * @return the history (this one or one of its bases) that stores the checkpoint
+     */
+    private DistributorHistory checkpointOwner(final int checkpoint) {
+        DistributorHistory owner = this;
+        while (checkpoint < owner.baseCheckpoints) {
+            owner = owner.base;
+        }
+        return owner;
+    }
+
+    /**
+     * Starts storing the finished months after the ones of a base
+     *
+     * @param newBase history that holds the finished months, or null if there are none
+     */
+    private void rebase(final DistributorHistory newBase) {
+        base = newBase;
+        baseMonths = months - 1;
+        baseCheckpoints = newBase == null ? 0 : newBase.baseCheckpoints + newBase.checkpoints;
+        deltaIds = new int[INITIAL_CAPACITY];
+        deltaOffsets = new int[INITIAL_CAPACITY + 1];
+        deltaSize = 0;
+        checkpointIds = new int[INITIAL_CAPACITY];
+        checkpointOffsets = new int[INITIAL_CAPACITY + 1];
+        checkpointSize = 0;
+        checkpoints = 0;
+    }
+
+    /**
+     * Copies the months and the checkpoints of the bases into the arrays of this history, so
+     * that it no longer has a base
+     */
+    private void flatten() {
+        IntList ids = new IntList();
+        int[] offsets = new int[2 * months - 1];
+        for (int month = 0; month < months - 1; ++month) {
+            DistributorHistory owner = deltaOwner(month);
+            int local = 2 * (month - owner.baseMonths);
+            for (int i = 0; i < 2; ++i) {
+                offsets[2 * month + i] = ids.size();
+                for (int j = owner.deltaOffsets[local + i]; j < owner.deltaOffsets[local + i + 1];
+                     ++j) {
+                    ids.add(owner.deltaIds[j]);
+                }
+            }
+        }
+        offsets[2 * months - 2] = ids.size();
+
+        IntList checkpointed = new IntList();
+        int total = baseCheckpoints + checkpoints;
+        int[] starts = new int[Math.max(total + 1, INITIAL_CAPACITY + 1)];
+        for (int checkpoint = 0; checkpoint < total; ++checkpoint) {
+            DistributorHistory owner = checkpointOwner(checkpoint);
+            int local = checkpoint - owner.baseCheckpoints;
+            starts[checkpoint] = checkpointed.size();
+            for (int i = owner.checkpointOffsets[local]; i < owner.checkpointOffsets[local + 1];
+                 ++i) {
+                checkpointed.add(owner.checkpointIds[i]);
+            }
+        }
+        starts[total] = checkpointed.size();
+        checkpointIds = checkpointed.toArray();
+        checkpointOffsets = starts;
+        checkpointSize = checkpointed.size();
+        checkpoints = total;
+
+        deltaIds = ids.toArray();
+        deltaOffsets = offsets;
+        deltaSize = ids.size();
+        base = null;
+        baseMonths = 0;
+        baseCheckpoints = 0;
+    }
+
+    private void writeCheckpoint() {
+        if (checkpointSize + current.size() > checkpointIds.length) {
+            checkpointIds = Arrays.copyOf(checkpointIds,
+                    Math.max(2 * checkpointIds.length, checkpointSize + current.size()));
+        }
+        if (checkpoints + 2 > checkpointOffsets.length) {
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, 2 * checkpointOffsets.length);
+        }
+
+        checkpointOffsets[checkpoints] = checkpointSize;
+        checkpointSize = append(checkpointIds, checkpointSize, current);
+        checkpointOffsets[++checkpoints] = checkpointSize;
+    }
+
+    private void ensureDeltaCapacity(final int extra) {
+        if (deltaSize + extra > deltaIds.length) {
+            deltaIds = Arrays.copyOf(deltaIds, Math.max(2 * deltaIds.length, deltaSize + extra));
+        }
+        if (2 * (months - baseMonths) + 1 > deltaOffsets.length) {
+            deltaOffsets = Arrays.copyOf(deltaOffsets, 2 * deltaOffsets.length);
+        }
+    }
+
+    private static int append(final int[] destination, final int from,
+                              final SortedIntSet source) {
+        for (int i = 0; i < source.size(); ++i) {
+            destination[from + i] = source.get(i);
+        }
+        return from + source.size();
+    }
+}
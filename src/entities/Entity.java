@@ -2,6 +2,7 @@ package entities;
 
 public abstract class Entity {
     protected final int id;
+    private int index = -1;
 
     /**
      * Constructor for entity
@@ -18,4 +19,18 @@ public abstract class Entity {
     public int getID() {
         return id;
     }
+
+    /**
+     * @return entity's dense index given by its registry, or -1 if it is not registered
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @param index dense index given by the registry
+     */
+    void setIndex(final int index) {
+        this.index = index;
+    }
 }
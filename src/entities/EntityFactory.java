@@ -1,9 +1,11 @@
 package entities;
 
-import org.json.simple.JSONObject;
+import strategies.EnergyChoiceStrategyType;
+
+import java.util.Map;
 
 public final class EntityFactory {
-    private static EntityFactory instance = null;
+    private static volatile EntityFactory instance = null;
 
     private EntityFactory() {
     }
@@ -29,34 +31,81 @@ public final class EntityFactory {
      * Generic Factory Method
      *
      * @param type   type of object to be created
-     * @param object object used to pull data from
+     * @param object fields used to pull data from (a JSONObject or any map of the input fields)
      * @return new instance of object
      */
-    public Entity createEntity(final EntityType type, final JSONObject object) {
+    public Entity createEntity(final EntityType type, final Map<?, ?> object) {
         if (type == EntityType.CONSUMER) {
-            return new Consumer(
-                    ((Long) object.get("id")).intValue(),
-                    ((Long) object.get("initialBudget")).intValue(),
-                    ((Long) object.get("monthlyIncome")).intValue()
+            return createConsumer(
+                    ((Number) object.get("id")).intValue(),
+                    ((Number) object.get("initialBudget")).intValue(),
+                    ((Number) object.get("monthlyIncome")).intValue()
             );
         } else if (type == EntityType.DISTRIBUTOR) {
-            return new Distributor(
-                    ((Long) object.get("id")).intValue(),
-                    ((Long) object.get("contractLength")).intValue(),
-                    ((Long) object.get("initialBudget")).intValue(),
-                    ((Long) object.get("initialInfrastructureCost")).intValue(),
-                    ((Long) object.get("energyNeededKW")).intValue(),
-                    object.get("producerStrategy").toString()
+            return createDistributor(
+                    ((Number) object.get("id")).intValue(),
+                    ((Number) object.get("contractLength")).intValue(),
+                    ((Number) object.get("initialBudget")).intValue(),
+                    ((Number) object.get("initialInfrastructureCost")).intValue(),
+                    ((Number) object.get("energyNeededKW")).intValue(),
+                    EnergyChoiceStrategyType.valueOf(object.get("producerStrategy").toString())
             );
         } else if (type == EntityType.PRODUCER) {
-            return new Producer(
-                    ((Long) object.get("id")).intValue(),
-                    object.get("energyType").toString(),
-                    ((Long) object.get("maxDistributors")).intValue(),
-                    ((Double) object.get("priceKW")),
-                    ((Long) object.get("energyPerDistributor")).intValue()
+            return createProducer(
+                    ((Number) object.get("id")).intValue(),
+                    EnergyType.valueOf(object.get("energyType").toString()),
+                    ((Number) object.get("maxDistributors")).intValue(),
+                    ((Number) object.get("priceKW")).doubleValue(),
+                    ((Number) object.get("energyPerDistributor")).intValue()
             );
         }
         throw new IllegalArgumentException("Unrecognized object type.");
     }
+
+    /**
+     * Creates a consumer straight from its fields (used by inputs that are not JSON)
+     *
+     * @param id            consumer's ID
+     * @param budget        consumer's initial budget
+     * @param monthlyIncome consumer's monthly income
+     * @return new consumer
+     */
+    public Consumer createConsumer(final int id, final int budget, final int monthlyIncome) {
+        return new Consumer(id, budget, monthlyIncome);
+    }
+
+    /**
+     * Creates a distributor straight from its fields (used by inputs that are not JSON)
+     *
+     * @param id                 distributor's ID
+     * @param contractLength     distributor's contract length
+     * @param budget             distributor's initial budget
+     * @param infrastructureCost distributor's initial infrastructure cost
+     * @param energyNeeded       distributor's monthly energy need
+     * @param strategy           distributor's strategy
+     * @return new distributor
+     */
+    public Distributor createDistributor(final int id, final int contractLength,
+                                         final int budget, final int infrastructureCost,
+                                         final int energyNeeded,
+                                         final EnergyChoiceStrategyType strategy) {
+        return new Distributor(id, contractLength, budget, infrastructureCost, energyNeeded,
+                strategy.name());
+    }
+
+    /**
+     * Creates a producer straight from its fields (used by inputs that are not JSON)
+     *
+     * @param id                   producer's ID
+     * @param energyType           producer's energy source type
+     * @param maxDistributors      producer's maximum amount of distributors
+     * @param price                producer's price per KW
+     * @param energyPerDistributor producer's energy per distributor
+     * @return new producer
+     */
+    public Producer createProducer(final int id, final EnergyType energyType,
+                                   final int maxDistributors, final double price,
+                                   final int energyPerDistributor) {
+        return new Producer(id, energyType.name(), maxDistributors, price, energyPerDistributor);
+    }
 }
@@ -0,0 +1,257 @@
+package entities;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Registry that maps the external IDs of entities to dense internal indices (in registration
+ * order) and stores the entities in arrays, so that any entity can be found in O(1) either
+ * by its ID or by its index, no matter how sparse or big the IDs are. The registry also keeps
+ * the entities in ID order (for output) and a bitmap of the active ones: an entity that leaves
+ * the game (a bankrupt one) keeps its index and is only cleared from the bitmap. The arrays are
+ * chunks of CHUNK_SIZE entities, so a forked registry shares them (and its ID columns) with the
+ * original one until one of the two changes a chunk.
+ *
+ * @param <T> type of the registered entities
+ */
+public final class EntityRegistry<T extends Entity> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private final IdIndex ids;
+    private final IdOrder idOrder;
+    private final BitSet active;
+    private int activeCount = 0;
+    private Entity[][] chunks = {new Entity[INITIAL_CAPACITY]};
+    // False for the chunks that another registry may read
+    private boolean[] owned = {true};
+    private int size = 0;
+
+    /**
+     * Constructor for an empty registry
+     */
+    public EntityRegistry() {
+        ids = new IdIndex(HeapColumns.getInstance());
+        idOrder = new IdOrder(HeapColumns.getInstance());
+        active = new BitSet();
+    }
+
+    private EntityRegistry(final EntityRegistry<T> registry) {
+        ids = registry.ids.fork();
+        idOrder = registry.idOrder.fork();
+        active = (BitSet) registry.active.clone();
+        activeCount = registry.activeCount;
+        Arrays.fill(registry.owned, false);
+        chunks = registry.chunks.clone();
+        owned = new boolean[chunks.length];
+        size = registry.size;
+    }
+
+    /**
+     * @return copy of the registry that shares the entities (the objects themselves) and the
+     * chunks holding them with this one until one of the two changes a chunk
+     */
+    EntityRegistry<T> fork() {
+        return new EntityRegistry<>(this);
+    }
+
+    /**
+     * Registers an entity and assigns it the next dense index
+     *
+     * @param entity to be registered
+     * @return dense index of the entity
+     */
+    public int register(final T entity) {
+        if (!ids.put(entity.getID(), size)) {
+            throw new IllegalArgumentException("Duplicate entity ID " + entity.getID() + ".");
+        }
+        ensureCapacity(size + 1);
+
+        entity.setIndex(size);
+        store(size, entity);
+        idOrder.add(entity.getID(), size);
+        active.set(size);
+        ++activeCount;
+        return size++;
+    }
+
+    /**
+     * Registers all entities in the iteration order of the collection
+     *
+     * @param newEntities to be registered
+     */
+    public void registerAll(final Collection<? extends T> newEntities) {
+        for (T entity : newEntities) {
+            register(entity);
+        }
+    }
+
+    /**
+     * @param id external ID of the entity
+     * @return the entity with the given ID, or null if there is no such entity
+     */
+    @SuppressWarnings("unchecked")
+    public T getByID(final int id) {
+        int index = ids.get(id);
+        return index < 0 ? null : (T) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * @param id external ID of the entity
+     * @return dense index of the entity, or -1 if there is no such entity
+     */
+    public int indexOf(final int id) {
+        return ids.get(id);
+    }
+
+    /**
+     * @param index dense index of the entity
+     * @return the entity with the given index
+     */
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + ".");
+        }
+        return (T) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Puts another entity in the place of a registered one, with the same ID (a copy of it)
+     *
+     * @param index  dense index of the registered entity
+     * @param entity entity that takes its place
+     */
+    void replace(final int index, final T entity) {
+        if (get(index).getID() != entity.getID()) {
+            throw new IllegalArgumentException("Entity " + entity.getID() + " cannot replace "
+                    + get(index).getID() + ".");
+        }
+        entity.setIndex(index);
+        store(index, entity);
+    }
+
+    /**
+     * @return number of registered entities
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return view of the entities in index order (the registration order)
+     */
+    public List<T> list() {
+        return new AbstractList<>() {
+            @Override
+            public T get(final int index) {
+                return EntityRegistry.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return the entities in ID order (the active and the inactive ones)
+     */
+    public Iterable<T> inIdOrder() {
+        return () -> new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < idOrder.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No entities left.");
+                }
+                return get(idOrder.get(position++));
+            }
+        };
+    }
+
+    /**
+     * Takes an entity out of the active set, it keeps its index and its ID
+     *
+     * @param index dense index of the entity
+     */
+    public void deactivate(final int index) {
+        if (active.get(index)) {
+            active.clear(index);
+            --activeCount;
+        }
+    }
+
+    /**
+     * @param index dense index of the entity
+     * @return true if the entity is active, otherwise false
+     */
+    public boolean isActive(final int index) {
+        return active.get(index);
+    }
+
+    /**
+     * Used to walk the active entities in index order:
+     * for (int i = nextActive(0); i >= 0; i = nextActive(i + 1))
+     *
+     * @param from first index to look at
+     * @return the first active index from the given one, or -1 if there is none
+     */
+    public int nextActive(final int from) {
+        return active.nextSetBit(from);
+    }
+
+    /**
+     * @return number of active entities
+     */
+    public int activeCount() {
+        return activeCount;
+    }
+
+    /**
+     * Writes an entity to its place, the chunk is copied first if it is shared
+     *
+     * @param index  dense index of the entity (below the capacity)
+     * @param entity entity to be written
+     */
+    private void store(final int index, final Entity entity) {
+        int chunk = index >>> CHUNK_SHIFT;
+        if (!owned[chunk]) {
+            chunks[chunk] = chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+        chunks[chunk][index & CHUNK_MASK] = entity;
+    }
+
+    /**
+     * @param capacity number of entities the chunks have to hold, at most one more than now
+     */
+    private void ensureCapacity(final int capacity) {
+        int first = chunks[0].length;
+        if (first < CHUNK_SIZE && capacity > first) {
+            // The first chunk doubles until it is full, a grown copy is owned
+            chunks[0] = Arrays.copyOf(chunks[0], Math.min(CHUNK_SIZE, 2 * first));
+            owned[0] = true;
+        }
+        int count = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (count > chunks.length) {
+            chunks = Arrays.copyOf(chunks, count);
+            owned = Arrays.copyOf(owned, count);
+            chunks[count - 1] = new Entity[CHUNK_SIZE];
+            owned[count - 1] = true;
+        }
+    }
+}
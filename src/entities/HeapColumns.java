@@ -0,0 +1,175 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Column storage on the heap. A column is an array of int arrays (chunks) of CHUNK_SIZE rows; the
+ * first one starts small and doubles until it is full, so a small column costs little. A
+ * shared column (see IntColumn.share) is copied one chunk at a time, when a chunk is first
+ * written, like the mapped storage does, so a fork only pays for the chunks it changes.
+ */
+final class HeapColumns implements ColumnStorage {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static volatile HeapColumns instance = null;
+
+    private HeapColumns() {
+    }
+
+    /**
+     * Singleton method (Thread Safe Lazy Instantiation with double checked locking principle)
+     *
+     * @return instance of the storage
+     */
+    static HeapColumns getInstance() {
+        if (instance == null) {
+            synchronized (HeapColumns.class) {
+                if (instance == null) {
+                    instance = new HeapColumns();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return new empty column
+     */
+    @Override
+    public IntColumn newColumn() {
+        return new Column();
+    }
+
+    private static final class Column implements IntColumn {
+        private int[][] chunks = {new int[INITIAL_CAPACITY]};
+        // False for the chunks that another column may read
+        private boolean[] owned = {true};
+
+        /**
+         * @param index row of the column (below the capacity)
+         * @return value of the row
+         */
+        @Override
+        public int get(final int index) {
+            return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        /**
+         * @param index row of the column (below the capacity)
+         * @param value new value of the row
+         */
+        @Override
+        public void set(final int index, final int value) {
+            int chunk = index >>> CHUNK_SHIFT;
+            if (!owned[chunk]) {
+                copyChunk(chunk);
+            }
+            chunks[chunk][index & CHUNK_MASK] = value;
+        }
+
+        /**
+         * @param size number of rows needed
+         */
+        @Override
+        public void ensureCapacity(final int size) {
+            int first = chunks[0].length;
+            if (first < CHUNK_SIZE && size > first) {
+                // The first chunk doubles until it is full, a grown copy is owned
+                chunks[0] = Arrays.copyOf(chunks[0],
+                        Math.min(CHUNK_SIZE, Math.max(size, 2 * first)));
+                owned[0] = true;
+            }
+            int count = (int) (((long) size + CHUNK_MASK) >>> CHUNK_SHIFT);
+            if (count <= chunks.length) {
+                return;
+            }
+            int oldCount = chunks.length;
+            chunks = Arrays.copyOf(chunks, count);
+            owned = Arrays.copyOf(owned, count);
+            for (int i = oldCount; i < count; ++i) {
+                chunks[i] = new int[CHUNK_SIZE];
+                owned[i] = true;
+            }
+        }
+
+        /**
+         * @return column that shares every chunk until one of the two writes to it
+         */
+        @Override
+        public IntColumn share() {
+            Arrays.fill(owned, false);
+            Column copy = new Column();
+            copy.chunks = chunks.clone();
+            copy.owned = new boolean[chunks.length];
+            return copy;
+        }
+
+        /**
+         * Copies the shared chunks
+         */
+        @Override
+        public void own() {
+            for (int chunk = 0; chunk < chunks.length; ++chunk) {
+                if (!owned[chunk]) {
+                    copyChunk(chunk);
+                }
+            }
+        }
+
+        /**
+         * The chunks are left to the garbage collector
+         */
+        @Override
+        public void release() {
+            chunks = null;
+            owned = null;
+        }
+
+        /**
+         * @param output snapshot the first rows are written to
+         * @param length number of rows to be written
+         * @throws IOException in case of failure when writing
+         */
+        @Override
+        public void writeTo(final SnapshotOutput output, final int length) throws IOException {
+            for (int chunk = 0, written = 0; written < length; ++chunk) {
+                int rows = Math.min(length - written, chunks[chunk].length);
+                output.writeInts(chunks[chunk], rows);
+                written += rows;
+            }
+        }
+
+        /**
+         * @param input  snapshot the first rows are read from
+         * @param length number of rows to be read
+         * @throws IOException in case of failure when reading
+         */
+        @Override
+        public void readFrom(final SnapshotInput input, final int length) throws IOException {
+            ensureCapacity(length);
+            for (int chunk = 0, read = 0; read < length; ++chunk) {
+                int rows = Math.min(length - read, chunks[chunk].length);
+                chunks[chunk] = input.readInts(rows, chunks[chunk].length);
+                owned[chunk] = true;
+                read += rows;
+            }
+        }
+
+        /**
+         * Replaces a shared chunk with a copy of its own
+         *
+         * @param chunk position of the chunk in the column
+         */
+        private void copyChunk(final int chunk) {
+            chunks[chunk] = chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+    }
+}
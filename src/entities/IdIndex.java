@@ -0,0 +1,116 @@
+package entities;
+
+/**
+ * Open addressing hash map from external (possibly sparse or huge) IDs to dense indices. Keys
+ * and values are stored in int columns of the game's storage, so a lookup never boxes the ID
+ * and a mapped game keeps its index off the heap. A slot stores its dense index plus one, so a
+ * new (zeroed) column is a table of empty slots.
+ */
+final class IdIndex {
+    private static final int MISSING = -1;
+    private static final int EMPTY = 0;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private final ColumnStorage storage;
+    private IntColumn keys;
+    private IntColumn values;
+    private int capacity;
+    private int size = 0;
+
+    /**
+     * @param storage storage of the index's columns
+     */
+    IdIndex(final ColumnStorage storage) {
+        this.storage = storage;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private IdIndex(final IdIndex index) {
+        storage = index.storage;
+        keys = index.keys.share();
+        values = index.values.share();
+        capacity = index.capacity;
+        size = index.size;
+    }
+
+    /**
+     * @return copy of the index that shares its columns with this one until one of the two
+     * writes them
+     */
+    IdIndex fork() {
+        return new IdIndex(this);
+    }
+
+    /**
+     * @param id external ID to look for
+     * @return dense index of the ID, or -1 if the ID is unknown
+     */
+    int get(final int id) {
+        int mask = capacity - 1;
+        int value;
+        for (int slot = hash(id) & mask; (value = values.get(slot)) != EMPTY;
+             slot = (slot + 1) & mask) {
+            if (keys.get(slot) == id) {
+                return value - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps an ID to a dense index
+     *
+     * @param id    external ID
+     * @param index dense index (non negative)
+     * @return false if the ID was already mapped (the old mapping is kept), otherwise true
+     */
+    boolean put(final int id, final int index) {
+        // Keep the load factor under 1/2 so that the probe sequences stay short
+        if (2 * (size + 1) > capacity) {
+            grow();
+        }
+
+        int mask = capacity - 1;
+        int slot = hash(id) & mask;
+        while (values.get(slot) != EMPTY) {
+            if (keys.get(slot) == id) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys.set(slot, id);
+        values.set(slot, index + 1);
+        ++size;
+        return true;
+    }
+
+    private void grow() {
+        IntColumn oldKeys = keys;
+        IntColumn oldValues = values;
+        int oldCapacity = capacity;
+
+        allocate(capacity * 2);
+        size = 0;
+        for (int slot = 0; slot < oldCapacity; ++slot) {
+            if (oldValues.get(slot) != EMPTY) {
+                put(oldKeys.get(slot), oldValues.get(slot) - 1);
+            }
+        }
+        oldKeys.release();
+        oldValues.release();
+    }
+
+    private void allocate(final int newCapacity) {
+        capacity = newCapacity;
+        keys = storage.newColumn();
+        values = storage.newColumn();
+        keys.ensureCapacity(capacity);
+        values.ensureCapacity(capacity);
+    }
+
+    private static int hash(final int id) {
+        int h = id * GOLDEN_RATIO;
+        return h ^ (h >>> (Integer.SIZE / 2));
+    }
+}
@@ -0,0 +1,108 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * Dense indices kept in the order of their IDs, as two int columns of the game's storage (the
+ * IDs and their dense indices). An ID larger than all the previous ones (the usual case, IDs
+ * are given in increasing order) is appended; the others wait on the heap in a pending buffer
+ * of long keys (ID in the high half, dense index in the low half, so the keys sort by ID) that
+ * is sorted and merged into the order when it is next read, so the whole order is never
+ * sorted again.
+ */
+final class IdOrder {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+    private final IntColumn ids;
+    private final IntColumn indices;
+    private int size = 0;
+    private long[] pending = new long[INITIAL_CAPACITY];
+    private int pendingSize = 0;
+
+    /**
+     * @param storage storage of the order's columns
+     */
+    IdOrder(final ColumnStorage storage) {
+        ids = storage.newColumn();
+        indices = storage.newColumn();
+    }
+
+    private IdOrder(final IdOrder order) {
+        ids = order.ids.share();
+        indices = order.indices.share();
+        size = order.size;
+        pending = order.pending.clone();
+        pendingSize = order.pendingSize;
+    }
+
+    /**
+     * @return copy of the order that shares its columns with this one until one of the two
+     * writes them
+     */
+    IdOrder fork() {
+        return new IdOrder(this);
+    }
+
+    /**
+     * @param id    external ID
+     * @param index dense index of the entity with the ID
+     */
+    void add(final int id, final int index) {
+        if (pendingSize == 0 && (size == 0 || id > ids.get(size - 1))) {
+            ids.ensureCapacity(size + 1);
+            indices.ensureCapacity(size + 1);
+            ids.set(size, id);
+            indices.set(size, index);
+            ++size;
+        } else {
+            if (pendingSize == pending.length) {
+                pending = Arrays.copyOf(pending, 2 * pendingSize);
+            }
+            pending[pendingSize++] = ((long) id << Integer.SIZE) | index;
+        }
+    }
+
+    /**
+     * @return number of indices
+     */
+    int size() {
+        return size + pendingSize;
+    }
+
+    /**
+     * @param position position in ID order
+     * @return dense index of the entity with the given position in ID order
+     */
+    int get(final int position) {
+        merge();
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size
+                    + ".");
+        }
+        return indices.get(position);
+    }
+
+    private void merge() {
+        if (pendingSize == 0) {
+            return;
+        }
+        Arrays.sort(pending, 0, pendingSize);
+        ids.ensureCapacity(size + pendingSize);
+        indices.ensureCapacity(size + pendingSize);
+
+        // Merges from the end, so the entries already in place are moved at most once
+        int from = size - 1;
+        int to = size + pendingSize - 1;
+        for (int i = pendingSize - 1; i >= 0; --i) {
+            int id = (int) (pending[i] >> Integer.SIZE);
+            while (from >= 0 && ids.get(from) > id) {
+                ids.set(to, ids.get(from));
+                indices.set(to--, indices.get(from--));
+            }
+            ids.set(to, id);
+            indices.set(to--, (int) (pending[i] & INDEX_MASK));
+        }
+        size += pendingSize;
+        pendingSize = 0;
+    }
+}
@@ -0,0 +1,65 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+
+/**
+ * Growable column of ints indexed from 0, kept by a ColumnStorage in chunks: int arrays on the
+ * heap, regions of a memory-mapped file otherwise. The values of a new row are 0.
+ */
+public interface IntColumn {
+    /**
+     * @param index row of the column (below the capacity)
+     * @return value of the row
+     */
+    int get(int index);
+
+    /**
+     * @param index row of the column (below the capacity)
+     * @param value new value of the row
+     */
+    void set(int index, int value);
+
+    /**
+     * Makes the rows below the given size valid
+     *
+     * @param size number of rows needed
+     */
+    void ensureCapacity(int size);
+
+    /**
+     * Creates a column with the same rows that shares them with this one until one of the two
+     * writes: the writer copies the written chunk first, so the other one never sees the change
+     * and a fork only pays for the chunks it changes
+     *
+     * @return column with the same rows
+     */
+    IntColumn share();
+
+    /**
+     * Copies the rows the column still shares (see share) now instead of on the first write,
+     * so that the column can be written from several threads at once
+     */
+    void own();
+
+    /**
+     * Gives the chunks back to the storage, the column is not used afterwards
+     */
+    void release();
+
+    /**
+     * @param output snapshot the first rows are written to (as SnapshotOutput.writeInts)
+     * @param length number of rows to be written
+     * @throws IOException in case of failure when writing
+     */
+    void writeTo(SnapshotOutput output, int length) throws IOException;
+
+    /**
+     * @param input  snapshot the first rows are read from (written by writeTo)
+     * @param length number of rows to be read, the capacity is raised to it
+     * @throws IOException in case of failure when reading
+     */
+    void readFrom(SnapshotInput input, int length) throws IOException;
+}
@@ -0,0 +1,65 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used to pass handles and indices around without boxing
+ */
+public final class IntList {
+    private static final int INITIAL_CAPACITY = 16;
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @param value to be appended
+     */
+    public void add(final int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @param other list whose values are appended, in order
+     */
+    public void addAll(final IntList other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(2 * values.length, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * @param index position in the list
+     * @return value at the given position
+     */
+    public int get(final int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + ".");
+        }
+        return values[index];
+    }
+
+    /**
+     * @return number of values in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return new array with the values of the list, in order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Removes all values
+     */
+    public void clear() {
+        size = 0;
+    }
+}
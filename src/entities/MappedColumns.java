@@ -0,0 +1,235 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Column storage in a memory-mapped temporary file, so the state of the consumers and of their
+ * contracts is limited by the disk and not by the heap. Every chunk of every column is its
+ * own region of the file, mapped when the column grows into it; the chunks of a released
+ * column (an outgrown hash table) are zeroed and handed to the next column that grows, so the
+ * file does not keep dead regions. A scan of a column reads a chunk sequentially and the page
+ * cache does the rest. A shared column (see IntColumn.share) is copied one chunk at a time,
+ * when a chunk is first written; the shared chunks are never handed to another column, since
+ * a column that still shares them may read them.
+ *
+ * The file is created in java.io.tmpdir and deleted once the storage and all its columns are
+ * collected (or when the JVM exits).
+ */
+final class MappedColumns implements ColumnStorage {
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long CHUNK_BYTES = (long) CHUNK_SIZE * Integer.BYTES;
+    private static final Cleaner CLEANER = Cleaner.create();
+    private final FileChannel channel;
+    private final Deque<IntBuffer> released = new ArrayDeque<>();
+    private long end = 0;
+
+    /**
+     * Constructor for the storage, creates its file
+     */
+    MappedColumns() {
+        try {
+            channel = FileChannel.open(Files.createTempFile("columns", ".bin"),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CLEANER.register(this, closer(channel));
+    }
+
+    /**
+     * @return new empty column
+     */
+    @Override
+    public IntColumn newColumn() {
+        return new Column(this);
+    }
+
+    /**
+     * @return a released chunk (zeroed again) or the next region of the file, mapped
+     */
+    private synchronized IntBuffer allocate() {
+        IntBuffer chunk = released.poll();
+        if (chunk != null) {
+            for (int i = 0; i < CHUNK_SIZE; ++i) {
+                chunk.put(i, 0);
+            }
+            return chunk;
+        }
+
+        try {
+            // The file grows with the mapping, the new region reads as zeros
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, end, CHUNK_BYTES)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end += CHUNK_BYTES;
+        return chunk;
+    }
+
+    /**
+     * @param chunk chunk that is no longer used by its column
+     */
+    private synchronized void release(final IntBuffer chunk) {
+        released.add(chunk);
+    }
+
+    /**
+     * The action must not refer to the storage, otherwise the storage would never become
+     * phantom reachable
+     *
+     * @param channel channel to be closed
+     * @return action that closes the channel
+     */
+    private static Runnable closer(final FileChannel channel) {
+        return () -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        };
+    }
+
+    private static final class Column implements IntColumn {
+        private final MappedColumns storage;
+        private IntBuffer[] chunks = new IntBuffer[0];
+        // False for the chunks that another column may read
+        private boolean[] owned = new boolean[0];
+
+        Column(final MappedColumns storage) {
+            this.storage = storage;
+        }
+
+        /**
+         * @param index row of the column (below the capacity)
+         * @return value of the row
+         */
+        @Override
+        public int get(final int index) {
+            return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+        }
+
+        /**
+         * @param index row of the column (below the capacity)
+         * @param value new value of the row
+         */
+        @Override
+        public void set(final int index, final int value) {
+            int chunk = index >>> CHUNK_SHIFT;
+            if (!owned[chunk]) {
+                copyChunk(chunk);
+            }
+            chunks[chunk].put(index & CHUNK_MASK, value);
+        }
+
+        /**
+         * @param size number of rows needed
+         */
+        @Override
+        public void ensureCapacity(final int size) {
+            int count = (int) (((long) size + CHUNK_MASK) >>> CHUNK_SHIFT);
+            if (count <= chunks.length) {
+                return;
+            }
+            int oldCount = chunks.length;
+            chunks = Arrays.copyOf(chunks, count);
+            owned = Arrays.copyOf(owned, count);
+            for (int i = oldCount; i < count; ++i) {
+                chunks[i] = storage.allocate();
+                owned[i] = true;
+            }
+        }
+
+        /**
+         * @return column that shares every chunk until one of the two writes to it
+         */
+        @Override
+        public IntColumn share() {
+            Arrays.fill(owned, false);
+            Column copy = new Column(storage);
+            copy.chunks = chunks.clone();
+            copy.owned = new boolean[chunks.length];
+            return copy;
+        }
+
+        /**
+         * Copies the shared chunks
+         */
+        @Override
+        public void own() {
+            for (int chunk = 0; chunk < chunks.length; ++chunk) {
+                if (!owned[chunk]) {
+                    copyChunk(chunk);
+                }
+            }
+        }
+
+        /**
+         * Hands the chunks that are not shared to the next column that grows
+         */
+        @Override
+        public void release() {
+            for (int chunk = 0; chunk < chunks.length; ++chunk) {
+                if (owned[chunk]) {
+                    storage.release(chunks[chunk]);
+                }
+            }
+            chunks = null;
+            owned = null;
+        }
+
+        /**
+         * @param output snapshot the first rows are written to
+         * @param length number of rows to be written
+         * @throws IOException in case of failure when writing
+         */
+        @Override
+        public void writeTo(final SnapshotOutput output, final int length) throws IOException {
+            for (int i = 0; i < length; ++i) {
+                output.writeInt(get(i));
+            }
+        }
+
+        /**
+         * @param input  snapshot the first rows are read from
+         * @param length number of rows to be read
+         * @throws IOException in case of failure when reading
+         */
+        @Override
+        public void readFrom(final SnapshotInput input, final int length) throws IOException {
+            ensureCapacity(length);
+            for (int i = 0; i < length; ++i) {
+                set(i, input.readInt());
+            }
+        }
+
+        /**
+         * Replaces a shared chunk with a copy of its own
+         *
+         * @param chunk position of the chunk in the column
+         */
+        private void copyChunk(final int chunk) {
+            IntBuffer copy = storage.allocate();
+            copy.put(0, chunks[chunk], 0, CHUNK_SIZE);
+            chunks[chunk] = copy;
+            owned[chunk] = true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * Set of dense indices marked since it was last cleared, kept in the order of their first
+ * mark. Marking and clearing cost O(1) per marked index, so it is used to remember which
+ * entities changed without visiting all of them.
+ */
+public final class MarkedIndices {
+    private static final int INITIAL_CAPACITY = 16;
+    private boolean[] marked = new boolean[INITIAL_CAPACITY];
+    private final IntList indices = new IntList();
+
+    /**
+     * @param index to be marked (marking it again has no effect)
+     */
+    public void mark(final int index) {
+        if (index >= marked.length) {
+            marked = Arrays.copyOf(marked, Math.max(index + 1, 2 * marked.length));
+        }
+        if (!marked[index]) {
+            marked[index] = true;
+            indices.add(index);
+        }
+    }
+
+    /**
+     * @param position position among the marked indices
+     * @return marked index at the given position
+     */
+    public int get(final int position) {
+        return indices.get(position);
+    }
+
+    /**
+     * @return number of marked indices
+     */
+    public int size() {
+        return indices.size();
+    }
+
+    /**
+     * Unmarks all indices
+     */
+    public void clear() {
+        for (int i = 0; i < indices.size(); ++i) {
+            marked[indices.get(i)] = false;
+        }
+        indices.clear();
+    }
+}
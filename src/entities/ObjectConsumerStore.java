@@ -0,0 +1,233 @@
+package entities;
+
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Consumer store that keeps every consumer as a Consumer object. A forked store shares the
+ * objects with the original one: either store copies a consumer (attached to its own ledger)
+ * the first time it changes it, and only reads the shared ones, never through their ledger.
+ */
+public final class ObjectConsumerStore implements ConsumerStore {
+    private final EntityRegistry<Consumer> consumers;
+    private final ContractLedger ledger;
+    // Consumers that no other store can read
+    private BitSet owned = new BitSet();
+
+    /**
+     * Constructor for the store
+     *
+     * @param ledger ledger that holds the consumers' contracts
+     */
+    ObjectConsumerStore(final ContractLedger ledger) {
+        this(ledger, new EntityRegistry<>());
+    }
+
+    private ObjectConsumerStore(final ContractLedger ledger,
+                                final EntityRegistry<Consumer> consumers) {
+        this.ledger = ledger;
+        this.consumers = consumers;
+    }
+
+    /**
+     * @return number of consumers (including bankrupt ones)
+     */
+    @Override
+    public int size() {
+        return consumers.size();
+    }
+
+    /**
+     * @param id external ID of a consumer
+     * @return dense index of the consumer, or -1 if there is no such consumer
+     */
+    @Override
+    public int indexOf(final int id) {
+        return consumers.indexOf(id);
+    }
+
+    /**
+     * @param consumer to be added
+     */
+    @Override
+    public void add(final Consumer consumer) {
+        consumer.attachLedger(ledger);
+        owned.set(consumers.register(consumer));
+    }
+
+    /**
+     * @param from first index of the range
+     * @param to   index after the last one of the range
+     */
+    @Override
+    public void advanceBudgets(final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            if (!consumers.get(i).isBankrupt()) {
+                Consumer consumer = own(i);
+                consumer.advanceBudget();
+                consumer.advanceLease();
+            }
+        }
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return the handle of the removed contract, or ContractLedger.NONE
+     */
+    @Override
+    public int purgePaidContract(final int index) {
+        int contract = consumers.get(index).getContract();
+        if (contract == ContractLedger.NONE || !ledger.isPaid(contract)) {
+            return ContractLedger.NONE;
+        }
+        return own(index).purgePaidContract();
+    }
+
+    /**
+     * @param from     first index of the range
+     * @param to       index after the last one of the range
+     * @param released list where the handles of the removed contracts are added
+     */
+    @Override
+    public void purgeCanceledContracts(final int from, final int to, final IntList released) {
+        for (int i = from; i < to; ++i) {
+            int contract = consumers.get(i).getContract();
+            if (contract != ContractLedger.NONE && ledger.isCanceled(contract)) {
+                released.add(own(i).purgeCanceledContract());
+            }
+        }
+    }
+
+    /**
+     * @param from     first index of the range
+     * @param to       index after the last one of the range
+     * @param unsigned list where the indices of the consumers are added, in order
+     */
+    @Override
+    public void findUnsigned(final int from, final int to, final IntList unsigned) {
+        for (int i = from; i < to; ++i) {
+            Consumer consumer = consumers.get(i);
+            if (!consumer.isBankrupt() && !consumer.signedContract()) {
+                unsigned.add(i);
+            }
+        }
+    }
+
+    /**
+     * @param index    dense index of the consumer
+     * @param contract handle of the contract signed by the consumer
+     */
+    @Override
+    public void signContract(final int index, final int contract) {
+        own(index).signContract(contract);
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return handle of the consumer's contract, or ContractLedger.NONE
+     */
+    @Override
+    public int getContract(final int index) {
+        return consumers.get(index).getContract();
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return external ID of the consumer
+     */
+    @Override
+    public int getID(final int index) {
+        return consumers.get(index).getID();
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return true if the consumer is bankrupt, otherwise false
+     */
+    @Override
+    public boolean isBankrupt(final int index) {
+        return consumers.get(index).isBankrupt();
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return the consumer object itself
+     */
+    @Override
+    public Consumer view(final int index) {
+        return consumers.get(index);
+    }
+
+    /**
+     * @return the consumers in the order of their IDs
+     */
+    @Override
+    public Iterable<Consumer> viewInIdOrder() {
+        return consumers.inIdOrder();
+    }
+
+    /**
+     * The consumers are shared, both stores copy the ones they change from now on
+     *
+     * @param ledger copy of the ledger of the store
+     * @return copy of the store
+     */
+    @Override
+    public ObjectConsumerStore fork(final ContractLedger ledger) {
+        owned = new BitSet();
+        return new ObjectConsumerStore(ledger, consumers.fork());
+    }
+
+    /**
+     * Copies the shared consumers now, the worker threads only change the ones they own
+     */
+    @Override
+    public void prepareConcurrentUpdates() {
+        for (int i = 0; i < consumers.size(); ++i) {
+            own(i);
+        }
+        ledger.prepareConcurrentUpdates();
+    }
+
+    /**
+     * @param output snapshot the consumers are written to
+     * @throws IOException in case of failure when writing
+     */
+    @Override
+    public void writeTo(final SnapshotOutput output) throws IOException {
+        int size = consumers.size();
+        output.writeInt(size);
+        for (int i = 0; i < size; ++i) {
+            output.writeInt(consumers.get(i).getID());
+        }
+        for (int i = 0; i < size; ++i) {
+            output.writeInt(consumers.get(i).getBudget());
+        }
+        for (int i = 0; i < size; ++i) {
+            output.writeInt(consumers.get(i).getMonthlyIncome());
+        }
+        for (int i = 0; i < size; ++i) {
+            output.writeBoolean(consumers.get(i).isBankrupt());
+        }
+        for (int i = 0; i < size; ++i) {
+            output.writeInt(consumers.get(i).getContract());
+        }
+    }
+
+    /**
+     * @param index dense index of the consumer
+     * @return the consumer, copied first if another store may read it
+     */
+    private Consumer own(final int index) {
+        if (owned.get(index)) {
+            return consumers.get(index);
+        }
+        Consumer copy = consumers.get(index).copy();
+        copy.attachLedger(ledger);
+        consumers.replace(index, copy);
+        owned.set(index);
+        return copy;
+    }
+}
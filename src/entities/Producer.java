@@ -1,14 +1,12 @@
 package entities;
 
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.Collections;
+import java.io.IOException;
 
 public final class Producer extends Entity {
-    private final List<Set<Integer>> distributorsHistory = new ArrayList<>();
+    private final DistributorHistory distributorsHistory;
     private final double price;
     private final int maxDistributors;
     private final EnergyType energyType;
@@ -25,7 +23,15 @@ public final class Producer extends Entity {
      */
     protected Producer(int id, String energyType, int maxDistributors, double price,
                        int energyPerDistributor) {
+        this(id, energyType, maxDistributors, price, energyPerDistributor,
+                new DistributorHistory());
+    }
+
+    private Producer(final int id, final String energyType, final int maxDistributors,
+                     final double price, final int energyPerDistributor,
+                     final DistributorHistory distributorsHistory) {
         super(id);
+        this.distributorsHistory = distributorsHistory;
         this.energyType = EnergyType.valueOf(energyType);
         this.maxDistributors = maxDistributors;
         this.price = price;
@@ -39,27 +45,31 @@ public final class Producer extends Entity {
      * @param currentTurn   used in order to remove the distributor from the right position
      */
     public void removeDistributor(int distributorId, int currentTurn) {
-        distributorsHistory.get(currentTurn).remove(distributorId);
+        checkCurrentTurn(currentTurn);
+        distributorsHistory.remove(distributorId);
     }
 
     /**
-     * Copies the previous distributors to the current distributors
+     * Starts a new month that expects the same distributors as the previous one (only the
+     * changes of the finished month are stored)
      *
-     * @param currentTurn used to determine the source and the destination of the copy
+     * @param currentTurn the month that starts, right after the last one in the history
      */
     public void updateExpectedDistributors(int currentTurn) {
-        distributorsHistory.get(currentTurn).addAll(distributorsHistory.get(currentTurn - 1));
+        if (currentTurn != distributorsHistory.getMonths()) {
+            throw new IllegalStateException("Month " + currentTurn + " cannot follow month "
+                    + (distributorsHistory.getMonths() - 1) + ".");
+        }
+        distributorsHistory.advance();
     }
 
     /**
-     * Initializes all monthly lists of distributors
+     * Reserves space in the history of distributors
      *
-     * @param numberOfTurns how big the list of TreeSets should be
+     * @param numberOfTurns how many months the history is expected to hold
      */
     public void initializeHistorySize(int numberOfTurns) {
-        for (int i = 0; i < numberOfTurns; ++i) {
-            distributorsHistory.add(new TreeSet<>());
-        }
+        distributorsHistory.reserve(numberOfTurns);
     }
 
     /**
@@ -69,7 +79,8 @@ public final class Producer extends Entity {
      * @param currentTurn   used in order to add the distributor to the right position
      */
     public void addDistributors(int distributorId, int currentTurn) {
-        distributorsHistory.get(currentTurn).add(distributorId);
+        checkCurrentTurn(currentTurn);
+        distributorsHistory.add(distributorId);
     }
 
     /**
@@ -77,7 +88,15 @@ public final class Producer extends Entity {
      * @return true if the current month distributors reached the maximum amount, otherwise false
      */
     public boolean isFull(int currentTurn) {
-        return distributorsHistory.get(currentTurn).size() == maxDistributors;
+        checkCurrentTurn(currentTurn);
+        return distributorsHistory.size() == maxDistributors;
+    }
+
+    /**
+     * @return true if the current month can take one more distributor, otherwise false
+     */
+    public boolean hasCapacity() {
+        return distributorsHistory.size() < maxDistributors;
     }
 
     /**
@@ -88,10 +107,10 @@ public final class Producer extends Entity {
     }
 
     /**
-     * @return unmodifiable list of distributors that have been assigned to this producer
+     * @return monthly history of the distributors that have been assigned to this producer
      */
-    public List<Set<Integer>> getDistributors() {
-        return Collections.unmodifiableList(distributorsHistory);
+    public DistributorHistory getDistributors() {
+        return distributorsHistory;
     }
 
     /**
@@ -130,4 +149,55 @@ public final class Producer extends Entity {
     public EnergyType getEnergyType() {
         return energyType;
     }
+
+    /**
+     * Writes the producer and its whole history of distributors
+     *
+     * @param output snapshot the producer is written to
+     * @throws IOException in case of failure when writing
+     */
+    public void writeTo(final SnapshotOutput output) throws IOException {
+        output.writeInt(id);
+        output.writeInt(energyType.ordinal());
+        output.writeInt(maxDistributors);
+        output.writeDouble(price);
+        output.writeInt(energyPerDistributor);
+        distributorsHistory.writeTo(output);
+    }
+
+    /**
+     * Creates a producer written by writeTo
+     *
+     * @param input snapshot the producer is read from
+     * @return the producer, with its history of distributors
+     * @throws IOException in case of failure when reading
+     */
+    public static Producer readFrom(final SnapshotInput input) throws IOException {
+        int id = input.readInt();
+        EnergyType energyType = EnergyType.values()[input.readInt()];
+        int maxDistributors = input.readInt();
+        double price = input.readDouble();
+        Producer producer = new Producer(id, energyType.name(), maxDistributors, price,
+                input.readInt());
+        producer.distributorsHistory.readFrom(input);
+        return producer;
+    }
+
+    /**
+     * Copies the producer for a branch of its game. The finished months of the history are
+     * shared with the copy (see DistributorHistory.fork).
+     *
+     * @return the copy
+     */
+    public Producer copy() {
+        return new Producer(id, energyType.name(), maxDistributors, price,
+                energyPerDistributor, distributorsHistory.fork());
+    }
+
+    private void checkCurrentTurn(int currentTurn) {
+        if (currentTurn != distributorsHistory.getMonths() - 1) {
+            throw new IllegalStateException("Month " + currentTurn + " is not the current month "
+                    + (distributorsHistory.getMonths() - 1) + ".");
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package entities;
+
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Small set of ints kept sorted inside a primitive array. Meant for the sets of distributors of
+ * a producer, which are bounded by the producer's maximum amount of distributors.
+ */
+final class SortedIntSet {
+    private static final int INITIAL_CAPACITY = 4;
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @param value to be added
+     * @return true if the value was not in the set, otherwise false
+     */
+    boolean add(final int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {
+            return false;
+        }
+
+        position = -position - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        ++size;
+        return true;
+    }
+
+    /**
+     * @param value to be removed
+     * @return true if the value was in the set, otherwise false
+     */
+    boolean remove(final int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position < 0) {
+            return false;
+        }
+
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        --size;
+        return true;
+    }
+
+    /**
+     * @param value to look for
+     * @return true if the value is in the set, otherwise false
+     */
+    boolean contains(final int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    /**
+     * @param index position in ascending order
+     * @return value at the given position
+     */
+    int get(final int index) {
+        return values[index];
+    }
+
+    /**
+     * @return number of values in the set
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Replaces the values with the ones of another set
+     *
+     * @param other set to be copied
+     */
+    void copyFrom(final SortedIntSet other) {
+        values = Arrays.copyOf(other.values, Math.max(other.size, INITIAL_CAPACITY));
+        size = other.size;
+    }
+
+    /**
+     * @return the values in ascending order
+     */
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @param output snapshot the values are written to
+     * @throws IOException in case of failure when writing
+     */
+    void writeTo(final SnapshotOutput output) throws IOException {
+        output.writeInt(size);
+        output.writeInts(values, size);
+    }
+
+    /**
+     * Replaces the values with the ones of a snapshot
+     *
+     * @param input snapshot the values are read from
+     * @throws IOException in case of failure when reading
+     */
+    void readFrom(final SnapshotInput input) throws IOException {
+        size = input.readInt();
+        values = input.readInts(size, INITIAL_CAPACITY);
+    }
+}
@@ -3,6 +3,7 @@ package entities;
 public abstract class SpecialEntity extends Entity {
     protected int budget;
     protected boolean isBankrupt = false;
+    protected ContractLedger ledger = null;
 
     /**
      * Constructor for special entity
@@ -26,21 +27,11 @@ public abstract class SpecialEntity extends Entity {
     public abstract void advanceLease();
 
     /**
-     * Assigns a contract to an entity
-     *
-     * @param contract to be assigned
-     */
-    public abstract void signContract(Contract contract);
-
-    /**
-     * Removes all paid contracts
+     * @param contractLedger ledger that holds the contracts of the entity's game
      */
-    public abstract void purgePaidContract();
-
-    /**
-     * Removes all canceled contracts
-     */
-    public abstract void purgeCanceledContract();
+    public void attachLedger(final ContractLedger contractLedger) {
+        this.ledger = contractLedger;
+    }
 
     /**
      * @return true if entity is bankrupt, otherwise false
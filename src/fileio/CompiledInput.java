@@ -0,0 +1,261 @@
+package fileio;
+
+import entities.Consumer;
+import entities.Distributor;
+import entities.EnergyType;
+import entities.EntityFactory;
+import entities.Producer;
+import game.DistributorChange;
+import game.Game;
+import game.MonthlyUpdate;
+import game.ProducerChange;
+import strategies.EnergyChoiceStrategyType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Loads an input compiled by InputCompiler. Every section of the file is memory-mapped and the
+ * entities are created straight from their fixed-width records. The section of the month blocks
+ * is mapped once, in windows of whole months (a single mapping is limited to 2GB), and every
+ * month is read through a slice of its window when the game reaches it.
+ */
+final class CompiledInput {
+    private static final EnergyType[] ENERGY_TYPES = EnergyType.values();
+    private static final EnergyChoiceStrategyType[] STRATEGIES =
+            EnergyChoiceStrategyType.values();
+
+    private CompiledInput() { }
+
+    /**
+     * @param path file to be checked
+     * @return true if the file starts with the magic number of a compiled input
+     * @throws IOException in case of failure when reading the file
+     */
+    static boolean isCompiled(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(header, 0) == Integer.BYTES
+                    && header.getInt(0) == CompiledInputFormat.MAGIC;
+        }
+    }
+
+    /**
+     * Reads the initial entities and prepares the monthly updates of a compiled input
+     *
+     * @param path compiled input
+     * @return a Game instance
+     * @throws IOException in case of an invalid file or failure when reading it
+     */
+    static Game read(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < CompiledInputFormat.HEADER_SIZE + CompiledInputFormat.DIRECTORY_SIZE) {
+                throw new IOException(path + " is not a compiled input.");
+            }
+            ByteBuffer header = map(channel, 0, CompiledInputFormat.HEADER_SIZE);
+            if (header.getInt() != CompiledInputFormat.MAGIC
+                    || header.getInt() != CompiledInputFormat.VERSION) {
+                throw new IOException(path + " has an unsupported format.");
+            }
+
+            ByteBuffer directory = map(channel, size - CompiledInputFormat.DIRECTORY_SIZE,
+                    CompiledInputFormat.DIRECTORY_SIZE);
+            int numberOfTurns = directory.getInt();
+            Iterable<Consumer> consumers = readConsumers(channel, directory.getInt(),
+                    directory.getLong());
+            List<Distributor> distributors = readDistributors(channel, directory.getInt(),
+                    directory.getLong());
+            List<Producer> producers = readProducers(channel, directory.getInt(),
+                    directory.getLong());
+            int months = directory.getInt();
+            long tableOffset = directory.getLong();
+
+            // The offsets table is small (one value per month), it is copied to the heap
+            long[] monthOffsets = new long[months == 0 ? 0 : months + 1];
+            if (months > 0) {
+                map(channel, tableOffset, (long) monthOffsets.length * Long.BYTES)
+                        .asLongBuffer().get(monthOffsets);
+            }
+
+            return new Game(numberOfTurns, new MonthlyBlocks(channel, monthOffsets),
+                    consumers, distributors, producers);
+        }
+    }
+
+    /**
+     * The consumer records are only mapped here, every iteration creates the consumers one at
+     * a time from them (the store of the game takes them over as they are created)
+     */
+    private static Iterable<Consumer> readConsumers(final FileChannel channel, final int count,
+                                                    final long offset) throws IOException {
+        ByteBuffer records = map(channel, offset,
+                (long) count * CompiledInputFormat.CONSUMER_RECORD_SIZE);
+        return () -> new Iterator<Consumer>() {
+            private final ByteBuffer position = records.duplicate()
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Consumer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ++next;
+                return EntityFactory.getInstance().createConsumer(position.getInt(),
+                        position.getInt(), position.getInt());
+            }
+        };
+    }
+
+    private static List<Distributor> readDistributors(final FileChannel channel, final int count,
+                                                      final long offset) throws IOException {
+        EntityFactory factory = EntityFactory.getInstance();
+        ByteBuffer records = map(channel, offset,
+                (long) count * CompiledInputFormat.DISTRIBUTOR_RECORD_SIZE);
+        List<Distributor> distributors = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            distributors.add(factory.createDistributor(records.getInt(), records.getInt(),
+                    records.getInt(), records.getInt(), records.getInt(),
+                    STRATEGIES[records.getInt()]));
+        }
+        return distributors;
+    }
+
+    private static List<Producer> readProducers(final FileChannel channel, final int count,
+                                                final long offset) throws IOException {
+        EntityFactory factory = EntityFactory.getInstance();
+        ByteBuffer records = map(channel, offset,
+                (long) count * CompiledInputFormat.PRODUCER_RECORD_SIZE);
+        List<Producer> producers = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            int id = records.getInt();
+            EnergyType energyType = ENERGY_TYPES[records.getInt()];
+            int maxDistributors = records.getInt();
+            int energyPerDistributor = records.getInt();
+            producers.add(factory.createProducer(id, energyType, maxDistributors,
+                    records.getDouble(), energyPerDistributor));
+        }
+        return producers;
+    }
+
+    /**
+     * Maps a region of the file (a single mapping is limited to 2GB, which is enough for
+     * about 170 million consumer records)
+     */
+    private static ByteBuffer map(final FileChannel channel, final long offset, final long size)
+            throws IOException {
+        if (size > Integer.MAX_VALUE || offset + size > channel.size()) {
+            throw new IOException("Invalid section of " + size + " bytes at offset " + offset
+                    + ".");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Monthly updates of a compiled input. The windows are mapped when the input is read (which
+     * only reserves the addresses, the pages are read when a month touches them) and stay valid
+     * once the file is closed.
+     */
+    private static final class MonthlyBlocks implements Iterator<MonthlyUpdate> {
+        private final long[] offsets;
+        private final List<ByteBuffer> windows = new ArrayList<>();
+        // Offset in the file of the first byte of every window
+        private final List<Long> windowStarts = new ArrayList<>();
+        private int month;
+        private int window;
+
+        /**
+         * Maps the month blocks, every window holding as many whole months as fit in it
+         *
+         * @param channel channel of the compiled input
+         * @param offsets offset of every month block and of the end of the last one
+         * @throws IOException in case of failure when mapping the file
+         */
+        MonthlyBlocks(final FileChannel channel, final long[] offsets) throws IOException {
+            this.offsets = offsets;
+            int first = 0;
+            while (first + 1 < offsets.length) {
+                int last = first + 1;
+                while (last + 1 < offsets.length
+                        && offsets[last + 1] - offsets[first] <= Integer.MAX_VALUE) {
+                    ++last;
+                }
+                windows.add(map(channel, offsets[first], offsets[last] - offsets[first]));
+                windowStarts.add(offsets[first]);
+                first = last;
+            }
+        }
+
+        /**
+         * @return true if there is another month left in the input, otherwise false
+         */
+        @Override
+        public boolean hasNext() {
+            return month + 1 < offsets.length;
+        }
+
+        /**
+         * Reads the block of the next month from its window
+         *
+         * @return the updates of the next month
+         */
+        @Override
+        public MonthlyUpdate next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No monthly updates left in the input.");
+            }
+
+            ByteBuffer current = windows.get(window);
+            long start = windowStarts.get(window);
+            if (offsets[month + 1] - start > current.capacity()) {
+                ++window;
+                current = windows.get(window);
+                start = windowStarts.get(window);
+            }
+            ByteBuffer block = current.slice((int) (offsets[month] - start),
+                    (int) (offsets[month + 1] - offsets[month])).order(ByteOrder.LITTLE_ENDIAN);
+            ++month;
+            return readMonth(block);
+        }
+
+        private static MonthlyUpdate readMonth(final ByteBuffer block) {
+            EntityFactory factory = EntityFactory.getInstance();
+
+            int count = block.getInt();
+            List<DistributorChange> distributorChanges = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                distributorChanges.add(new DistributorChange(block.getInt(), block.getInt()));
+            }
+
+            count = block.getInt();
+            List<Consumer> newConsumers = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                newConsumers.add(factory.createConsumer(block.getInt(), block.getInt(),
+                        block.getInt()));
+            }
+
+            count = block.getInt();
+            List<ProducerChange> producerChanges = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                producerChanges.add(new ProducerChange(block.getInt(), block.getInt()));
+            }
+
+            return new MonthlyUpdate(distributorChanges, newConsumers, producerChanges);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package fileio;
+
+/**
+ * Layout of the compiled (binary) input written by InputCompiler. All the values are little
+ * endian:
+ * <ul>
+ *     <li>header: magic number and version</li>
+ *     <li>fixed-width records of the initial consumers, distributors and producers</li>
+ *     <li>one block per month: the distributor changes, new consumers and producer changes,
+ *     each list preceded by its size</li>
+ *     <li>the offsets of the month blocks (one more than the number of months, the last one
+ *     marks the end of the last block)</li>
+ *     <li>directory: number of turns, the size and offset of every section</li>
+ * </ul>
+ * The directory is written last, so the compiler never has to go back in the file.
+ */
+final class CompiledInputFormat {
+    static final int MAGIC = 0x42475245;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int SECTION_SIZE = Integer.BYTES + Long.BYTES;
+    static final int DIRECTORY_SIZE = Integer.BYTES + 4 * SECTION_SIZE;
+
+    /** id, initialBudget, monthlyIncome */
+    static final int CONSUMER_RECORD_SIZE = 3 * Integer.BYTES;
+    /** id, contractLength, initialBudget, initialInfrastructureCost, energyNeededKW, strategy */
+    static final int DISTRIBUTOR_RECORD_SIZE = 6 * Integer.BYTES;
+    /** id, energyType, maxDistributors, energyPerDistributor, priceKW */
+    static final int PRODUCER_RECORD_SIZE = 4 * Integer.BYTES + Double.BYTES;
+
+    private CompiledInputFormat() { }
+}
@@ -0,0 +1,148 @@
+package fileio;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import entities.Consumer;
+import entities.EntityFactory;
+import entities.EntityType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily parses the "consumers" array of the initial data of an input file. The Reader only
+ * skips the array; every iteration opens the file again, seeks the array and creates one
+ * consumer at a time, so the store of the game takes the consumers over as they are parsed and
+ * the initial population is never held on the heap as a whole.
+ */
+final class InitialConsumersStream implements Iterable<Consumer> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private final String inputFile;
+    private final boolean strict;
+
+    /**
+     * Constructor for the stream
+     *
+     * @param inputFile input file with a "consumers" array in its "initialData"
+     * @param strict    true if a malformed consumer is an error, false if it is printed and the
+     *                  consumers before it are played (as the Reader does)
+     */
+    InitialConsumersStream(final String inputFile, final boolean strict) {
+        this.inputFile = inputFile;
+        this.strict = strict;
+    }
+
+    /**
+     * @return iterator that parses the consumers of the input, in order
+     */
+    @Override
+    public Iterator<Consumer> iterator() {
+        return new ConsumerIterator();
+    }
+
+    /**
+     * Moves the parser into the value of a field of the object it is positioned on
+     *
+     * @param parser parser positioned on the START_OBJECT token
+     * @param field  name of the field
+     * @return true if the parser is positioned on the first token of the field's value
+     * @throws IOException in case of a malformed input
+     */
+    private static boolean seek(final JsonParser parser, final String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private final class ConsumerIterator implements Iterator<Consumer> {
+        private JsonParser parser;
+        // Consumer parsed ahead, null at the end of the array (or after a failure)
+        private Consumer lookahead;
+
+        ConsumerIterator() {
+            try {
+                parser = JSON_FACTORY.createParser(new File(inputFile));
+                parser.nextToken();
+                if (seek(parser, "initialData") && seek(parser, "consumers")) {
+                    advance();
+                } else {
+                    close();
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * @return true if there is another consumer left in the input, otherwise false
+         */
+        @Override
+        public boolean hasNext() {
+            return lookahead != null;
+        }
+
+        /**
+         * Parses the consumer after the one returned
+         *
+         * @return the next consumer of the input
+         */
+        @Override
+        public Consumer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No consumers left in the input.");
+            }
+            Consumer consumer = lookahead;
+            advance();
+            return consumer;
+        }
+
+        private void advance() {
+            lookahead = null;
+            try {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    lookahead = (Consumer) EntityFactory.getInstance().createEntity(
+                            EntityType.CONSUMER, JsonObjects.readFlatObject(parser));
+                } else {
+                    // End of the array, the file is no longer needed
+                    close();
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void fail(final Exception e) {
+            close();
+            if (strict) {
+                throw new UncheckedIOException(new IOException("Invalid input " + inputFile
+                        + ".", e));
+            }
+            e.printStackTrace();
+        }
+
+        private void close() {
+            if (parser == null) {
+                return;
+            }
+            try {
+                parser.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            parser = null;
+        }
+    }
+}
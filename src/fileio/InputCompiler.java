@@ -0,0 +1,193 @@
+package fileio;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import entities.EnergyType;
+import entities.IntList;
+import snapshot.SnapshotOutput;
+import strategies.EnergyChoiceStrategyType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Compiles a JSON input into the binary format described by CompiledInputFormat. The input is
+ * streamed: the entities are written as soon as they are parsed and only the month that is
+ * compiled is kept in memory, so inputs of any size can be compiled once and then loaded by
+ * Reader without parsing any text.
+ */
+public final class InputCompiler {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int INITIAL_MONTHS = 16;
+    private static final int SECTIONS = 3;
+    private static final int CONSUMERS = 0;
+    private static final int DISTRIBUTORS = 1;
+    private static final int PRODUCERS = 2;
+    private static final int CONSUMER_FIELDS = 3;
+    private static final int CHANGE_FIELDS = 2;
+    private final String inputFile;
+    private final IntList distributorChanges = new IntList();
+    private final IntList newConsumers = new IntList();
+    private final IntList producerChanges = new IntList();
+    private final int[] sectionCounts = new int[SECTIONS];
+    private final long[] sectionOffsets = new long[SECTIONS];
+    private long[] monthOffsets = new long[INITIAL_MONTHS];
+    private int monthOffsetCount;
+    private int numberOfTurns;
+    private int months;
+
+    /**
+     * Constructor for InputCompiler
+     *
+     * @param inputFile JSON input to be compiled
+     */
+    public InputCompiler(final String inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    /**
+     * Writes the compiled input
+     *
+     * @param outputFile binary file to be written (it is replaced)
+     * @throws IOException in case of a malformed input or failure when writing
+     */
+    public void compile(final String outputFile) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(new File(inputFile));
+             SnapshotOutput output = new SnapshotOutput(Paths.get(outputFile))) {
+            output.writeInt(CompiledInputFormat.MAGIC);
+            output.writeInt(CompiledInputFormat.VERSION);
+
+            JsonObjects.expect(parser, JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (name.equals("numberOfTurns")) {
+                    numberOfTurns = parser.getIntValue();
+                } else if (name.equals("initialData")) {
+                    compileInitialData(parser, output);
+                } else if (name.equals("monthlyUpdates")) {
+                    compileMonths(parser, output);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            long tableOffset = output.position();
+            for (int i = 0; i < monthOffsetCount; ++i) {
+                output.writeLong(monthOffsets[i]);
+            }
+
+            output.writeInt(numberOfTurns);
+            for (int i = 0; i < sectionCounts.length; ++i) {
+                output.writeInt(sectionCounts[i]);
+                output.writeLong(sectionOffsets[i]);
+            }
+            output.writeInt(months);
+            output.writeLong(tableOffset);
+        }
+    }
+
+    private void compileInitialData(final JsonParser parser, final SnapshotOutput output)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            int section = name.equals("consumers") ? CONSUMERS
+                    : name.equals("distributors") ? DISTRIBUTORS
+                    : name.equals("producers") ? PRODUCERS : -1;
+            if (section < 0 || parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+
+            sectionOffsets[section] = output.position();
+            sectionCounts[section] = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Map<String, Object> fields = JsonObjects.readFlatObject(parser);
+                if (section == CONSUMERS) {
+                    output.writeInt(intField(fields, "id"));
+                    output.writeInt(intField(fields, "initialBudget"));
+                    output.writeInt(intField(fields, "monthlyIncome"));
+                } else if (section == DISTRIBUTORS) {
+                    output.writeInt(intField(fields, "id"));
+                    output.writeInt(intField(fields, "contractLength"));
+                    output.writeInt(intField(fields, "initialBudget"));
+                    output.writeInt(intField(fields, "initialInfrastructureCost"));
+                    output.writeInt(intField(fields, "energyNeededKW"));
+                    output.writeInt(EnergyChoiceStrategyType.valueOf(
+                            fields.get("producerStrategy").toString()).ordinal());
+                } else {
+                    output.writeInt(intField(fields, "id"));
+                    output.writeInt(EnergyType.valueOf(
+                            fields.get("energyType").toString()).ordinal());
+                    output.writeInt(intField(fields, "maxDistributors"));
+                    output.writeInt(intField(fields, "energyPerDistributor"));
+                    output.writeDouble(((Number) fields.get("priceKW")).doubleValue());
+                }
+                ++sectionCounts[section];
+            }
+        }
+    }
+
+    private void compileMonths(final JsonParser parser, final SnapshotOutput output)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            distributorChanges.clear();
+            newConsumers.clear();
+            producerChanges.clear();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Map<String, Object> fields = JsonObjects.readFlatObject(parser);
+                    if (name.equals("distributorChanges")) {
+                        distributorChanges.add(intField(fields, "id"));
+                        distributorChanges.add(intField(fields, "infrastructureCost"));
+                    } else if (name.equals("newConsumers")) {
+                        newConsumers.add(intField(fields, "id"));
+                        newConsumers.add(intField(fields, "initialBudget"));
+                        newConsumers.add(intField(fields, "monthlyIncome"));
+                    } else if (name.equals("producerChanges")) {
+                        producerChanges.add(intField(fields, "id"));
+                        producerChanges.add(intField(fields, "energyPerDistributor"));
+                    }
+                }
+            }
+
+            addMonthOffset(output.position());
+            writeBlock(output, distributorChanges, CHANGE_FIELDS);
+            writeBlock(output, newConsumers, CONSUMER_FIELDS);
+            writeBlock(output, producerChanges, CHANGE_FIELDS);
+            ++months;
+        }
+        addMonthOffset(output.position());
+    }
+
+    private void addMonthOffset(final long offset) {
+        if (monthOffsetCount == monthOffsets.length) {
+            monthOffsets = Arrays.copyOf(monthOffsets, 2 * monthOffsets.length);
+        }
+        monthOffsets[monthOffsetCount++] = offset;
+    }
+
+    private static void writeBlock(final SnapshotOutput output, final IntList values,
+                                   final int recordLength) throws IOException {
+        output.writeInt(values.size() / recordLength);
+        for (int i = 0; i < values.size(); ++i) {
+            output.writeInt(values.get(i));
+        }
+    }
+
+    private static int intField(final Map<String, Object> fields, final String name) {
+        return ((Number) fields.get(name)).intValue();
+    }
+}
@@ -0,0 +1,62 @@
+package fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for pulling flat JSON objects out of a streaming parser
+ */
+final class JsonObjects {
+
+    private JsonObjects() { }
+
+    /**
+     * Reads the object the parser is positioned on into a map of its scalar fields. Integers are
+     * stored as Long, decimals as Double and text as String (the same types used by
+     * json-simple); nested values are skipped.
+     *
+     * @param parser parser positioned on START_OBJECT
+     * @return map with the fields of the object
+     * @throws IOException in case of a malformed input
+     */
+    static Map<String, Object> readFlatObject(final JsonParser parser) throws IOException {
+        Map<String, Object> fields = new HashMap<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NUMBER_INT) {
+                fields.put(name, parser.getLongValue());
+            } else if (value == JsonToken.VALUE_NUMBER_FLOAT) {
+                fields.put(name, parser.getDoubleValue());
+            } else if (value == JsonToken.VALUE_STRING) {
+                fields.put(name, parser.getText());
+            } else if (value == JsonToken.VALUE_TRUE || value == JsonToken.VALUE_FALSE) {
+                fields.put(name, parser.getBooleanValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Moves the parser to the next token and checks that it is the expected one
+     *
+     * @param parser   parser to advance
+     * @param expected token that must follow
+     * @throws IOException in case of a malformed input
+     */
+    static void expect(final JsonParser parser, final JsonToken expected) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != expected) {
+            throw new IOException("Expected " + expected + " but found " + token + " at "
+                    + parser.getCurrentLocation());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import entities.Consumer;
+import entities.EntityFactory;
+import entities.EntityType;
+import game.DistributorChange;
+import game.MonthlyUpdate;
+import game.ProducerChange;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily parses the "monthlyUpdates" array of an input file, one month at a time, so that only
+ * the month that is currently played is kept in memory
+ */
+public final class MonthlyUpdatesStream implements Iterator<MonthlyUpdate>, Closeable {
+    private final JsonParser parser;
+    private JsonToken lookahead;
+
+    /**
+     * Constructor for the stream
+     *
+     * @param parser parser positioned on the START_ARRAY token of "monthlyUpdates"
+     * @throws IOException in case of a malformed input
+     */
+    MonthlyUpdatesStream(final JsonParser parser) throws IOException {
+        this.parser = parser;
+        advance();
+    }
+
+    /**
+     * @return true if there is another month left in the input, otherwise false
+     */
+    @Override
+    public boolean hasNext() {
+        return lookahead == JsonToken.START_OBJECT;
+    }
+
+    /**
+     * Parses the next month
+     *
+     * @return the updates of the next month
+     */
+    @Override
+    public MonthlyUpdate next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No monthly updates left in the input.");
+        }
+
+        try {
+            MonthlyUpdate update = readMonth();
+            advance();
+            return update;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the underlying input
+     *
+     * @throws IOException in case of failure when closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void advance() throws IOException {
+        lookahead = parser.nextToken();
+        if (lookahead != JsonToken.START_OBJECT) {
+            // End of the array (or of the input), the file is no longer needed
+            parser.close();
+        }
+    }
+
+    private MonthlyUpdate readMonth() throws IOException {
+        EntityFactory factory = EntityFactory.getInstance();
+        List<DistributorChange> distributorChanges = new ArrayList<>();
+        List<Consumer> newConsumers = new ArrayList<>();
+        List<ProducerChange> producerChanges = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Map<String, Object> fields = JsonObjects.readFlatObject(parser);
+                if (name.equals("distributorChanges")) {
+                    distributorChanges.add(new DistributorChange(
+                            ((Number) fields.get("id")).intValue(),
+                            ((Number) fields.get("infrastructureCost")).intValue()));
+                } else if (name.equals("newConsumers")) {
+                    newConsumers.add(
+                            (Consumer) factory.createEntity(EntityType.CONSUMER, fields));
+                } else if (name.equals("producerChanges")) {
+                    producerChanges.add(new ProducerChange(
+                            ((Number) fields.get("id")).intValue(),
+                            ((Number) fields.get("energyPerDistributor")).intValue()));
+                }
+            }
+        }
+
+        return new MonthlyUpdate(distributorChanges, newConsumers, producerChanges);
+    }
+}
@@ -1,20 +1,27 @@
 package fileio;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import entities.Consumer;
 import entities.Distributor;
+import entities.Entity;
 import entities.EntityFactory;
 import entities.Producer;
 import entities.EntityType;
 import game.Game;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 
-import java.io.FileReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public final class Reader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
     private final String inputFile;
 
     /**
@@ -27,59 +34,177 @@ public final class Reader {
     }
 
     /**
-     * Reads all entities, monthly updates and number of turns and returns a Game instance with
-     * the read data
+     * Reads all entities and the number of turns and returns a Game instance with the read data.
+     * The input is streamed: the initial distributors and producers are created directly from
+     * the parser, the initial consumers are skipped and parsed again one at a time when the game
+     * starts (see InitialConsumersStream) and the monthly updates are only parsed when the game
+     * reaches their month. Inputs compiled by
+     * InputCompiler are recognized by their magic number and memory-mapped instead.
      *
      * @return a Game instance
      */
     public Game readGameData() {
-        EntityFactory factory = EntityFactory.getInstance();
-        JSONParser parser = new JSONParser();
+        try {
+            return read(false);
+        } catch (IOException e) {
+            // Not thrown when the failures are only reported
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Same as readGameData, except that a missing or malformed input is an error instead of
+     * being played as the part of it that could be read (used where a game is one of many and
+     * its failure has to be reported)
+     *
+     * @return a Game instance
+     * @throws IOException in case of failure when reading the input
+     */
+    public Game readValidGameData() throws IOException {
+        return read(true);
+    }
+
+    /**
+     * @param strict true if a failure is thrown, false if it is printed and the input read so
+     *               far is played
+     * @return a Game instance
+     * @throws IOException in case of failure when reading the input, if strict
+     */
+    private Game read(final boolean strict) throws IOException {
+        try {
+            Path path = Paths.get(inputFile);
+            if (CompiledInput.isCompiled(path)) {
+                return CompiledInput.read(path);
+            }
+        } catch (IOException e) {
+            if (strict) {
+                throw e;
+            }
+            e.printStackTrace();
+        }
 
         int numberOfTurns = 0;
-        JSONArray monthlyUpdates = null;
-        List<Consumer> consumers = new ArrayList<>();
+        MonthlyUpdatesStream monthlyUpdates = null;
+        Iterable<Consumer> consumers = Collections.emptyList();
         List<Distributor> distributors = new ArrayList<>();
         List<Producer> producers = new ArrayList<>();
 
         // Reads all data
         try {
-            JSONObject jsonObject = (JSONObject) parser.parse(new FileReader(inputFile));
-            JSONObject initialData = (JSONObject) jsonObject.get("initialData");
-            JSONArray initialConsumers = (JSONArray) initialData.get("consumers");
-            JSONArray initialDistributors = (JSONArray) initialData.get("distributors");
-            JSONArray initialProducers = (JSONArray) initialData.get("producers");
-
-            numberOfTurns = ((Long) jsonObject.get("numberOfTurns")).intValue();
-            monthlyUpdates = (JSONArray) jsonObject.get("monthlyUpdates");
-
-            // Uses the factory to create new Consumers
-            for (Object consumer : initialConsumers) {
-                consumers.add(
-                        (Consumer) factory.createEntity(
-                                EntityType.CONSUMER, (JSONObject) consumer)
-                );
-            }
+            JsonParser parser = JSON_FACTORY.createParser(new File(inputFile));
+            boolean numberOfTurnsRead = false;
+            boolean initialDataRead = false;
+            boolean monthlyUpdatesSkipped = false;
 
-            // Uses the factory to create new Distributors
-            for (Object distributor : initialDistributors) {
-                distributors.add(
-                        (Distributor) factory.createEntity(
-                                EntityType.DISTRIBUTOR, (JSONObject) distributor)
-                );
+            JsonObjects.expect(parser, JsonToken.START_OBJECT);
+            while (monthlyUpdates == null && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (name.equals("numberOfTurns")) {
+                    numberOfTurns = parser.getIntValue();
+                    numberOfTurnsRead = true;
+                } else if (name.equals("initialData")) {
+                    if (readInitialData(parser, distributors, producers)) {
+                        consumers = new InitialConsumersStream(inputFile, strict);
+                    }
+                    initialDataRead = true;
+                } else if (name.equals("monthlyUpdates")
+                        && numberOfTurnsRead && initialDataRead) {
+                    // Everything else is known, the months can be streamed from here
+                    monthlyUpdates = new MonthlyUpdatesStream(parser);
+                } else {
+                    monthlyUpdatesSkipped |= name.equals("monthlyUpdates");
+                    parser.skipChildren();
+                }
             }
 
-            // Uses the factory to create new Producers
-            for (Object producer : initialProducers) {
-                producers.add(
-                        (Producer) factory.createEntity(
-                                EntityType.PRODUCER, (JSONObject) producer)
-                );
+            if (monthlyUpdates == null) {
+                parser.close();
+                // The months came before the initial data, open the file again to stream them
+                monthlyUpdates = monthlyUpdatesSkipped ? seekMonthlyUpdates() : null;
             }
         } catch (Exception e) {
+            if (strict) {
+                throw new IOException("Invalid input " + inputFile + ".", e);
+            }
             e.printStackTrace();
         }
 
-        return new Game(numberOfTurns, monthlyUpdates, consumers, distributors, producers);
+        return new Game(numberOfTurns,
+                monthlyUpdates != null ? monthlyUpdates : Collections.emptyIterator(),
+                consumers, distributors, producers);
+    }
+
+    /**
+     * Creates a new stream positioned on the "monthlyUpdates" array of the input
+     *
+     * @return stream of monthly updates
+     * @throws IOException in case of failure when reading the file
+     */
+    private MonthlyUpdatesStream seekMonthlyUpdates() throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(new File(inputFile));
+
+        JsonObjects.expect(parser, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (name.equals("monthlyUpdates")) {
+                return new MonthlyUpdatesStream(parser);
+            }
+            parser.skipChildren();
+        }
+
+        parser.close();
+        return null;
+    }
+
+    /**
+     * Creates the initial distributors and producers straight from the parser and skips the
+     * consumers (they are streamed when the game starts)
+     *
+     * @param parser       parser positioned on the "initialData" object
+     * @param distributors list to be filled with the initial distributors
+     * @param producers    list to be filled with the initial producers
+     * @return true if the initial data has consumers
+     * @throws IOException in case of a malformed input
+     */
+    private boolean readInitialData(final JsonParser parser,
+                                    final List<Distributor> distributors,
+                                    final List<Producer> producers) throws IOException {
+        boolean consumers = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (name.equals("consumers")) {
+                consumers = true;
+                parser.skipChildren();
+            } else if (name.equals("distributors")) {
+                readEntities(parser, EntityType.DISTRIBUTOR, distributors);
+            } else if (name.equals("producers")) {
+                readEntities(parser, EntityType.PRODUCER, producers);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return consumers;
+    }
+
+    /**
+     * Uses the factory to create a new entity for every object of the current array
+     *
+     * @param parser   parser positioned on the START_ARRAY token
+     * @param type     type of the entities in the array
+     * @param entities list to be filled with the created entities
+     * @param <T>      class of the entities
+     * @throws IOException in case of a malformed input
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Entity> void readEntities(final JsonParser parser, final EntityType type,
+                                                 final List<T> entities) throws IOException {
+        EntityFactory factory = EntityFactory.getInstance();
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            entities.add((T) factory.createEntity(type, JsonObjects.readFlatObject(parser)));
+        }
     }
 }
@@ -0,0 +1,111 @@
+package fileio;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import game.GamePhase;
+import game.GameStatistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Writes the statistics of the phases next to the output of a game: a JSON report with the
+ * totals of every phase followed by the phases of every turn, and a CSV with one row per turn
+ * and phase
+ */
+public final class StatisticsWriter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String JSON_SUFFIX = ".statistics.json";
+    private static final String CSV_SUFFIX = ".statistics.csv";
+    private final String outputPath;
+
+    /**
+     * Constructor for StatisticsWriter
+     *
+     * @param outputPath output file of the game, the reports get its name and a suffix
+     */
+    public StatisticsWriter(final String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * Writes both reports
+     *
+     * @param statistics statistics of the game
+     * @throws IOException in case of failure when writing the reports
+     */
+    public void writeReports(final GameStatistics statistics) throws IOException {
+        writeJson(statistics);
+        writeCsv(statistics);
+    }
+
+    private void writeJson(final GameStatistics statistics) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(
+                new File(outputPath + JSON_SUFFIX), JsonEncoding.UTF8)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+
+            json.writeArrayFieldStart("phases");
+            for (GamePhase phase : GamePhase.values()) {
+                long nanos = 0;
+                long invocations = 0;
+                long touched = 0;
+                for (int turn = 0; turn < statistics.getTurns(); ++turn) {
+                    nanos += statistics.getNanos(turn, phase);
+                    invocations += statistics.getInvocations(turn, phase);
+                    touched += statistics.getTouched(turn, phase);
+                }
+                writePhase(json, phase, invocations, nanos, touched);
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("turns");
+            for (int turn = 0; turn < statistics.getTurns(); ++turn) {
+                json.writeStartObject();
+                json.writeNumberField("turn", turn);
+                json.writeArrayFieldStart("phases");
+                for (GamePhase phase : GamePhase.values()) {
+                    if (statistics.getInvocations(turn, phase) > 0) {
+                        writePhase(json, phase, statistics.getInvocations(turn, phase),
+                                statistics.getNanos(turn, phase),
+                                statistics.getTouched(turn, phase));
+                    }
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+    private static void writePhase(final JsonGenerator json, final GamePhase phase,
+                                   final long invocations, final long nanos,
+                                   final long touched) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("phase", phase.toString());
+        json.writeNumberField("invocations", invocations);
+        json.writeNumberField("nanos", nanos);
+        json.writeNumberField("touched", touched);
+        json.writeEndObject();
+    }
+
+    private void writeCsv(final GameStatistics statistics) throws IOException {
+        try (PrintWriter csv = new PrintWriter(outputPath + CSV_SUFFIX)) {
+            csv.println("turn,phase,invocations,nanos,touched");
+            for (int turn = 0; turn < statistics.getTurns(); ++turn) {
+                for (GamePhase phase : GamePhase.values()) {
+                    if (statistics.getInvocations(turn, phase) > 0) {
+                        csv.println(turn + "," + phase + ","
+                                + statistics.getInvocations(turn, phase) + ","
+                                + statistics.getNanos(turn, phase) + ","
+                                + statistics.getTouched(turn, phase));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package fileio;
+
+import game.GameOutcome;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Writes the summary of a parameter sweep: a CSV with one row per variant of the scenario
+ */
+public final class SweepWriter {
+    private final String outputPath;
+
+    /**
+     * Constructor for SweepWriter
+     *
+     * @param outputPath file the summary is written to
+     */
+    public SweepWriter(final String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * Writes the summary, the variants that failed get a row with no outcome
+     *
+     * @param variants variants of the scenario (or any description of the games), in the
+     *                 order of the rows; their toString names the rows
+     * @param outcomes outcome of every variant, null if its game failed
+     * @throws IOException in case of failure when writing the summary
+     */
+    public void writeSummary(final List<?> variants,
+                             final List<GameOutcome> outcomes) throws IOException {
+        try (PrintWriter csv = new PrintWriter(outputPath)) {
+            csv.println("variant,consumers,bankruptConsumers,consumerBudgets,distributors,"
+                    + "bankruptDistributors,distributorBudgets,producerUtilization");
+            for (int i = 0; i < variants.size(); ++i) {
+                GameOutcome outcome = outcomes.get(i);
+                if (outcome == null) {
+                    csv.println(variants.get(i) + ",,,,,,,");
+                    continue;
+                }
+                csv.println(variants.get(i) + "," + outcome.getConsumers() + ","
+                        + outcome.getBankruptConsumers() + "," + outcome.getConsumerBudgets()
+                        + "," + outcome.getDistributors() + ","
+                        + outcome.getBankruptDistributors() + ","
+                        + outcome.getDistributorBudgets() + ","
+                        + outcome.getProducerUtilization());
+            }
+        }
+    }
+}
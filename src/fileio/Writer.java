@@ -1,110 +1,131 @@
 package fileio;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import entities.Consumer;
 import entities.Contract;
 import entities.Distributor;
+import entities.DistributorHistory;
 import entities.Producer;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 
 public final class Writer {
-    private final FileWriter file;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private final FileChannel file;
 
     /**
      * Constructor for Writer
      *
-     * @param path file to write from
+     * @param path file to write to
      * @throws IOException in case of failure for read/write
      */
     public Writer(final String path) throws IOException {
-        this.file = new FileWriter(path);
+        this.file = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
     /**
-     * Takes the lists of consumers and distributors in order to create a JSONObject for output
+     * Streams the consumers, the distributors and the producers to the file, in the order they
+     * are given, and closes the file. Every entity is written as soon as it is reached, through
+     * the generator's buffer, so no representation of the whole output is kept in memory.
      *
-     * @param consumers    list of consumers to be written
-     * @param distributors list of distributors to be written
-     * @return JSONObject that contains all the data that needs to be written
+     * @param consumers    consumers to be written
+     * @param distributors distributors to be written
+     * @param producers    producers to be written
      */
-    public JSONObject writeFile(final List<Consumer> consumers,
-                                final List<Distributor> distributors,
-                                final List<Producer> producers) {
-        JSONObject result = new JSONObject();
-        JSONArray consumersArray = new JSONArray();
-        JSONArray distributorsArray = new JSONArray();
-        JSONArray producerArray = new JSONArray();
+    public void writeFile(final Iterable<Consumer> consumers,
+                          final Iterable<Distributor> distributors,
+                          final Iterable<Producer> producers) {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(Channels.newOutputStream(file),
+                JsonEncoding.UTF8)) {
+            json.writeStartObject();
 
-        for (Consumer consumer : consumers) {
-            JSONObject consumerData = new JSONObject();
-            consumerData.put(Constants.ID, consumer.getID());
-            consumerData.put(Constants.IS_BANKRUPT, consumer.isBankrupt());
-            consumerData.put(Constants.BUDGET, consumer.getBudget());
-            consumersArray.add(consumerData);
-        }
-
-        for (Distributor distributor : distributors) {
-            JSONObject distributorData = new JSONObject();
-            distributorData.put(Constants.ID, distributor.getID());
-            distributorData.put(Constants.ENERGY_NEEDED, distributor.getEnergyNeeded());
-            distributorData.put(Constants.CONTRACT_COST, distributor.getContractCost());
-            distributorData.put(Constants.BUDGET, distributor.getBudget());
-            distributorData.put(Constants.PRODUCER_STRATEGY, distributor.getStrategy().toString());
-            distributorData.put(Constants.IS_BANKRUPT, distributor.isBankrupt());
-            JSONArray contractsArray = new JSONArray();
-            for (Contract contract : distributor.getContracts()) {
-                JSONObject contractData = new JSONObject();
-                contractData.put(Constants.CONSUMER_ID, contract.getContracteeID());
-                contractData.put(Constants.PRICE, contract.getOriginalPrice());
-                contractData.put(Constants.CONTRACT_MONTHS, contract.getRemainedMonths());
-                contractsArray.add(contractData);
+            json.writeArrayFieldStart(Constants.CONSUMERS);
+            for (Consumer consumer : consumers) {
+                json.writeStartObject();
+                json.writeNumberField(Constants.ID, consumer.getID());
+                json.writeBooleanField(Constants.IS_BANKRUPT, consumer.isBankrupt());
+                json.writeNumberField(Constants.BUDGET, consumer.getBudget());
+                json.writeEndObject();
             }
-            distributorData.put(Constants.CONTRACTS, contractsArray);
-            distributorsArray.add(distributorData);
-        }
+            json.writeEndArray();
 
-        for (Producer producer : producers) {
-            JSONObject producerData = new JSONObject();
-            producerData.put(Constants.ID, producer.getID());
-            producerData.put(Constants.MAX_DISTRIBUTORS, producer.getMaxDistributors());
-            producerData.put(Constants.PRICE_KW, producer.getPrice());
-            producerData.put(Constants.ENERGY_TYPE, producer.getEnergyType().toString());
-            producerData.put(Constants.ENERGY_PER_DISTRIBUTOR, producer.getEnergyPerDistributor());
-            JSONArray distributorsHistory = new JSONArray();
-            for (int i = 1; i < producer.getDistributors().size(); ++i) {
-                JSONObject distributorsHistoryData = new JSONObject();
-                distributorsHistoryData.put(Constants.MONTH, i);
-                distributorsHistoryData.put(Constants.DISTRIBUTORS_IDS,
-                        producer.getDistributors().get(i));
-                distributorsHistory.add(distributorsHistoryData);
+            json.writeArrayFieldStart(Constants.DISTRIBUTORS);
+            for (Distributor distributor : distributors) {
+                json.writeStartObject();
+                json.writeNumberField(Constants.ID, distributor.getID());
+                json.writeNumberField(Constants.ENERGY_NEEDED, distributor.getEnergyNeeded());
+                json.writeNumberField(Constants.CONTRACT_COST, distributor.getContractCost());
+                json.writeNumberField(Constants.BUDGET, distributor.getBudget());
+                json.writeStringField(Constants.PRODUCER_STRATEGY,
+                        distributor.getStrategy().toString());
+                json.writeBooleanField(Constants.IS_BANKRUPT, distributor.isBankrupt());
+                json.writeArrayFieldStart(Constants.CONTRACTS);
+                for (Contract contract : distributor.getContracts()) {
+                    json.writeStartObject();
+                    json.writeNumberField(Constants.CONSUMER_ID, contract.getContracteeID());
+                    json.writeNumberField(Constants.PRICE, contract.getOriginalPrice());
+                    json.writeNumberField(Constants.CONTRACT_MONTHS,
+                            contract.getRemainedMonths());
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
             }
-            producerData.put(Constants.MONTHLY_STATS, distributorsHistory);
-            producerArray.add(producerData);
-        }
+            json.writeEndArray();
 
-        result.put(Constants.CONSUMERS, consumersArray);
-        result.put(Constants.DISTRIBUTORS, distributorsArray);
-        result.put(Constants.PRODUCERS, producerArray);
+            json.writeArrayFieldStart(Constants.PRODUCERS);
+            for (Producer producer : producers) {
+                writeProducer(json, producer);
+            }
+            json.writeEndArray();
 
-        return result;
+            json.writeEndObject();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
-     * Writes to file and closes the file
+     * Writes a producer and the distributors it had in every month
      *
-     * @param object to be written from
+     * @param json     generator of the output
+     * @param producer producer to be written
+     * @throws IOException in case of failure when writing
      */
-    public void closeJSON(final JSONObject object) {
-        try {
-            file.write(object.toJSONString());
-            file.flush();
-            file.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void writeProducer(final JsonGenerator json, final Producer producer)
+            throws IOException {
+        json.writeStartObject();
+        json.writeNumberField(Constants.ID, producer.getID());
+        json.writeNumberField(Constants.MAX_DISTRIBUTORS, producer.getMaxDistributors());
+        json.writeNumberField(Constants.PRICE_KW, producer.getPrice());
+        json.writeStringField(Constants.ENERGY_TYPE, producer.getEnergyType().toString());
+        json.writeNumberField(Constants.ENERGY_PER_DISTRIBUTOR,
+                producer.getEnergyPerDistributor());
+        json.writeArrayFieldStart(Constants.MONTHLY_STATS);
+        DistributorHistory history = producer.getDistributors();
+        if (history.getMonths() > 1) {
+            // Rebuilds the months one after the other, starting with month 1
+            Iterator<int[]> months = history.monthsFrom(1);
+            for (int i = 1; months.hasNext(); ++i) {
+                json.writeStartObject();
+                json.writeNumberField(Constants.MONTH, i);
+                json.writeArrayFieldStart(Constants.DISTRIBUTORS_IDS);
+                for (int distributorId : months.next()) {
+                    json.writeNumber(distributorId);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
         }
+        json.writeEndArray();
+        json.writeEndObject();
     }
 }
@@ -0,0 +1,33 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a distributor taken out of the game by purgeBrokePlayers
+ */
+@Name("energy.Bankruptcy")
+@Label("Bankruptcy")
+@Category({"Energy System", "Game"})
+@Description("A distributor went bankrupt")
+@Enabled(false)
+public final class BankruptcyEvent extends Event {
+    @Label("Distributor")
+    private int distributor;
+
+    @Label("Budget")
+    private int budget;
+
+    /**
+     * @param distributor ID of the distributor
+     * @param budget      budget of the distributor when it went bankrupt
+     */
+    void set(final int distributor, final int budget) {
+        this.distributor = distributor;
+        this.budget = budget;
+    }
+}
@@ -0,0 +1,133 @@
+package game;
+
+import entities.IntList;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a task over the consumers' dense indices with fork-join, by splitting them into
+ * contiguous ranges. Results are always merged in the order of the ranges, so the outcome is
+ * the same as running the task sequentially.
+ */
+final class ConsumerPartitions {
+    private static final int LEAF_SIZE = 4096;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool pool used to run the partitions, or null to run everything on the calling
+     *             thread
+     */
+    ConsumerPartitions(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Task that only changes the state of the consumers in its range
+     */
+    interface Action {
+        /**
+         * @param from first index of the range
+         * @param to   index after the last one of the range
+         */
+        void apply(int from, int to);
+    }
+
+    /**
+     * Task that updates the consumers in its range and may produce results (handles or
+     * indices) for them
+     */
+    interface Collector {
+        /**
+         * @param from    first index of the range
+         * @param to      index after the last one of the range
+         * @param results list where the results for the range are added, in order
+         */
+        void apply(int from, int to, IntList results);
+    }
+
+    /**
+     * Applies the action on the indices [0, size)
+     *
+     * @param size   number of consumers
+     * @param action independent per range task
+     */
+    void forEach(final int size, final Action action) {
+        if (pool == null || size <= LEAF_SIZE) {
+            action.apply(0, size);
+            return;
+        }
+        pool.invoke(new ForEachTask(action, 0, size));
+    }
+
+    /**
+     * Applies the collector on the indices [0, size) and gathers the results
+     *
+     * @param size      number of consumers
+     * @param collector independent per range task
+     * @return results in the order of the indices
+     */
+    IntList collect(final int size, final Collector collector) {
+        if (pool == null || size <= LEAF_SIZE) {
+            IntList results = new IntList();
+            collector.apply(0, size, results);
+            return results;
+        }
+        return pool.invoke(new CollectTask(collector, 0, size));
+    }
+
+    private static final class ForEachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Action action;
+        private final int from;
+        private final int to;
+
+        ForEachTask(final Action action, final int from, final int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                action.apply(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForEachTask(action, from, middle), new ForEachTask(action, middle, to));
+        }
+    }
+
+    private static final class CollectTask extends RecursiveTask<IntList> {
+        private static final long serialVersionUID = 1L;
+        private final Collector collector;
+        private final int from;
+        private final int to;
+
+        CollectTask(final Collector collector, final int from, final int to) {
+            this.collector = collector;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from <= LEAF_SIZE) {
+                IntList results = new IntList();
+                collector.apply(from, to, results);
+                return results;
+            }
+
+            int middle = (from + to) >>> 1;
+            CollectTask right = new CollectTask(collector, middle, to);
+            right.fork();
+            IntList results = new CollectTask(collector, from, middle).compute();
+            // The left half always comes first, whatever finishes first
+            results.addAll(right.join());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the batch of contracts signed by the cheapest distributor in
+ * signContracts
+ */
+@Name("energy.ContractSigning")
+@Label("Contract Signing")
+@Category({"Energy System", "Game"})
+@Description("The consumers without a contract signed with the cheapest distributor")
+@Enabled(false)
+public final class ContractSigningEvent extends Event {
+    @Label("Distributor")
+    private int distributor;
+
+    @Label("Contracts")
+    private int contracts;
+
+    @Label("Price")
+    private int price;
+
+    @Label("Contract Length")
+    private int length;
+
+    /**
+     * @param distributor ID of the distributor
+     * @param contracts   number of contracts signed
+     * @param price       price of the contracts
+     * @param length      number of months of the contracts
+     */
+    void set(final int distributor, final int contracts, final int price, final int length) {
+        this.distributor = distributor;
+        this.contracts = contracts;
+        this.price = price;
+        this.length = length;
+    }
+}
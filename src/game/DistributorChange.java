@@ -0,0 +1,34 @@
+package game;
+
+/**
+ * A monthly change of a distributor's infrastructure cost
+ */
+public final class DistributorChange {
+    private final int id;
+    private final int infrastructureCost;
+
+    /**
+     * Constructor for a distributor change
+     *
+     * @param id                 ID of the distributor that changes
+     * @param infrastructureCost new infrastructure cost
+     */
+    public DistributorChange(final int id, final int infrastructureCost) {
+        this.id = id;
+        this.infrastructureCost = infrastructureCost;
+    }
+
+    /**
+     * @return ID of the distributor that changes
+     */
+    public int getID() {
+        return id;
+    }
+
+    /**
+     * @return new infrastructure cost
+     */
+    public int getInfrastructureCost() {
+        return infrastructureCost;
+    }
+}
@@ -0,0 +1,117 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of distributors (by their dense indices) keyed by their contract
+ * cost. Equal costs are ordered by the dense index, which follows the order of the
+ * distributors' list, so the top is the distributor Collections.min would pick from that list.
+ * A distributor's cost is changed in place in O(log n) through its position in the heap.
+ */
+final class DistributorHeap {
+    private static final int INITIAL_CAPACITY = 16;
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int[] positions = new int[0];
+    private int[] costs = new int[0];
+    private int size = 0;
+
+    /**
+     * Adds a distributor or changes its cost
+     *
+     * @param distributor dense index of the distributor
+     * @param cost        contract cost of the distributor
+     */
+    void update(final int distributor, final int cost) {
+        if (distributor >= positions.length) {
+            int oldLength = positions.length;
+            int newLength = Math.max(distributor + 1, 2 * oldLength);
+            positions = Arrays.copyOf(positions, newLength);
+            costs = Arrays.copyOf(costs, newLength);
+            Arrays.fill(positions, oldLength, newLength, -1);
+        }
+
+        costs[distributor] = cost;
+        int position = positions[distributor];
+        if (position < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, 2 * size);
+            }
+            position = size++;
+            place(distributor, position);
+        }
+        siftDown(siftUp(position));
+    }
+
+    /**
+     * @param distributor dense index of the distributor to be removed (if it is in the heap)
+     */
+    void remove(final int distributor) {
+        if (!contains(distributor)) {
+            return;
+        }
+        int position = positions[distributor];
+        positions[distributor] = -1;
+        --size;
+        if (position < size) {
+            place(heap[size], position);
+            siftDown(siftUp(position));
+        }
+    }
+
+    /**
+     * @param distributor dense index of the distributor
+     * @return true if the distributor is in the heap, otherwise false
+     */
+    boolean contains(final int distributor) {
+        return distributor < positions.length && positions[distributor] >= 0;
+    }
+
+    /**
+     * @return dense index of the distributor with the lowest cost, or -1 if the heap is empty
+     */
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    private int siftUp(final int start) {
+        int position = start;
+        int distributor = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!less(distributor, heap[parent])) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(distributor, position);
+        return position;
+    }
+
+    private void siftDown(final int start) {
+        int position = start;
+        int distributor = heap[position];
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                ++child;
+            }
+            if (!less(heap[child], distributor)) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(distributor, position);
+    }
+
+    private boolean less(final int first, final int second) {
+        return costs[first] < costs[second]
+                || (costs[first] == costs[second] && first < second);
+    }
+
+    private void place(final int distributor, final int position) {
+        heap[position] = distributor;
+        positions[distributor] = position;
+    }
+}
@@ -0,0 +1,9 @@
+package game;
+
+/**
+ * Ways in which the consumer phases of a month can be executed
+ */
+public enum ExecutionMode {
+    SEQUENTIAL,
+    PARALLEL
+}
@@ -0,0 +1,204 @@
+package game;
+
+import entities.ColumnStorage;
+import entities.IntColumn;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of the contracts' expiry months. Every contract is kept as an
+ * entry (consumer index, contract handle, expiry) in the slot of the month it is expected to
+ * be paid off. A level has 64 slots: a slot of level 0 is one month, a slot of level k spans
+ * 64^k months and is spread over the level below when the wheel reaches it. Advancing the
+ * wheel by a month only touches the contracts that expire in that month.
+ *
+ * The entries are int columns of the game's storage (so a mapped game keeps them off the
+ * heap) and every slot is a linked list of entries in scheduling order; only the heads and the
+ * tails of the slots are heap arrays. Freed entries are reused.
+ */
+final class ExpiryWheel {
+    /**
+     * Value used for a missing entry
+     */
+    static final int NONE = -1;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+    private final int[][] heads = new int[LEVELS][];
+    private final int[][] tails = new int[LEVELS][];
+    private final IntColumn consumers;
+    private final IntColumn contracts;
+    private final IntColumn expiries;
+    private final IntColumn next;
+    private int capacity = 0;
+    private int freeHead = NONE;
+    // List returned by the last advance, its entries are freed by the next one
+    private int dueHead = NONE;
+    private int dueTail = NONE;
+    private int month;
+
+    /**
+     * Constructor for the wheel
+     *
+     * @param month   the current month (contracts expire after it)
+     * @param storage storage of the entries
+     */
+    ExpiryWheel(final int month, final ColumnStorage storage) {
+        this.month = month;
+        for (int level = 0; level < LEVELS; ++level) {
+            heads[level] = new int[SLOTS];
+            tails[level] = new int[SLOTS];
+            Arrays.fill(heads[level], NONE);
+            Arrays.fill(tails[level], NONE);
+        }
+        consumers = storage.newColumn();
+        contracts = storage.newColumn();
+        expiries = storage.newColumn();
+        next = storage.newColumn();
+    }
+
+    private ExpiryWheel(final ExpiryWheel wheel) {
+        month = wheel.month;
+        for (int level = 0; level < LEVELS; ++level) {
+            heads[level] = wheel.heads[level].clone();
+            tails[level] = wheel.tails[level].clone();
+        }
+        consumers = wheel.consumers.share();
+        contracts = wheel.contracts.share();
+        expiries = wheel.expiries.share();
+        next = wheel.next.share();
+        capacity = wheel.capacity;
+        freeHead = wheel.freeHead;
+        dueHead = wheel.dueHead;
+        dueTail = wheel.dueTail;
+    }
+
+    /**
+     * @return copy of the wheel for a branch of the game, its entries are shared with this
+     * wheel until one of the two writes them
+     */
+    ExpiryWheel fork() {
+        return new ExpiryWheel(this);
+    }
+
+    /**
+     * @return the current month
+     */
+    int getMonth() {
+        return month;
+    }
+
+    /**
+     * @param consumer dense index of the consumer
+     * @param contract handle of the consumer's contract
+     * @param expiry   month when the contract is expected to be purged, after the current one
+     */
+    void schedule(final int consumer, final int contract, final int expiry) {
+        int entry = allocate();
+        consumers.set(entry, consumer);
+        contracts.set(entry, contract);
+        expiries.set(entry, expiry);
+        place(entry);
+    }
+
+    /**
+     * Moves the wheel to the next month. The entries returned by the previous call are freed.
+     *
+     * @return first entry of the contracts that expire in the new month (walked with next), or
+     * NONE; the entries stay valid until the next call
+     */
+    int advance() {
+        if (dueHead != NONE) {
+            next.set(dueTail, freeHead);
+            freeHead = dueHead;
+        }
+
+        ++month;
+        // The slots of the upper levels that start now are spread over the levels below
+        for (int level = LEVELS - 1; level > 0; --level) {
+            if ((month & ((1 << (SLOT_BITS * level)) - 1)) == 0) {
+                int slot = (month >>> (SLOT_BITS * level)) & (SLOTS - 1);
+                int entry = heads[level][slot];
+                heads[level][slot] = NONE;
+                tails[level][slot] = NONE;
+                while (entry != NONE) {
+                    int following = next.get(entry);
+                    place(entry);
+                    entry = following;
+                }
+            }
+        }
+
+        int slot = month & (SLOTS - 1);
+        dueHead = heads[0][slot];
+        dueTail = tails[0][slot];
+        heads[0][slot] = NONE;
+        tails[0][slot] = NONE;
+        return dueHead;
+    }
+
+    /**
+     * @param entry entry returned by advance (or by next)
+     * @return the entry that expires in the same month after it, or NONE
+     */
+    int next(final int entry) {
+        return next.get(entry);
+    }
+
+    /**
+     * @param entry entry of a contract
+     * @return dense index of the contract's consumer
+     */
+    int getConsumer(final int entry) {
+        return consumers.get(entry);
+    }
+
+    /**
+     * @param entry entry of a contract
+     * @return handle of the contract
+     */
+    int getContract(final int entry) {
+        return contracts.get(entry);
+    }
+
+    /**
+     * Appends an entry to the slot of its expiry
+     *
+     * @param entry entry that is not in any slot
+     */
+    private void place(final int entry) {
+        int expiry = expiries.get(entry);
+        long delta = (long) expiry - month;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            ++level;
+        }
+        // Months beyond the last level wait in its farthest slot and are placed again from there
+        long at = delta < SPAN ? expiry : month + SPAN - 1;
+        int slot = (int) (at >>> (SLOT_BITS * level)) & (SLOTS - 1);
+
+        next.set(entry, NONE);
+        if (tails[level][slot] == NONE) {
+            heads[level][slot] = entry;
+        } else {
+            next.set(tails[level][slot], entry);
+        }
+        tails[level][slot] = entry;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int entry = freeHead;
+            freeHead = next.get(entry);
+            return entry;
+        }
+
+        int size = capacity + 1;
+        consumers.ensureCapacity(size);
+        contracts.ensureCapacity(size);
+        expiries.ensureCapacity(size);
+        next.ensureCapacity(size);
+        return capacity++;
+    }
+}
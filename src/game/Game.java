@@ -1,104 +1,425 @@
 package game;
 
 import entities.Consumer;
+import entities.ConsumerStore;
+import entities.ConsumerStoreFactory;
+import entities.ConsumerStoreType;
+import entities.ContractLedger;
 import entities.Distributor;
+import entities.DistributorHistory;
+import entities.EntityRegistry;
 import entities.Producer;
 import fileio.Writer;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.IntSupplier;
 
 public final class Game {
-    private final List<Consumer> consumers;
-    private final List<Distributor> distributors;
-    private final List<Producer> producers;
-    private final List<Consumer> bankruptConsumers = new ArrayList<>();
-    private final List<Distributor> bankruptDistributors = new ArrayList<>();
+    private final List<Distributor> initialDistributors;
+    private final List<Producer> initialProducers;
+    private final EntityRegistry<Distributor> distributors = new EntityRegistry<>();
+    private final EntityRegistry<Producer> producers = new EntityRegistry<>();
     private final int numberOfTurns;
-    private final JSONArray monthlyUpdates;
+    private final Iterator<MonthlyUpdate> monthlyUpdates;
+    private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+    private ConsumerStoreType consumerStoreType = ConsumerStoreType.OBJECTS;
+    private Iterable<Consumer> initialConsumers;
+    private ConsumerStore consumers = null;
+    private boolean statisticsEnabled = false;
+    private GameStatistics statistics = new GameStatistics(0, false);
+    private PhaseObserver phaseObserver = null;
+    private Path checkpointPath = null;
+    private int checkpointInterval = 0;
+    private Path resumePath = null;
+    private ContractLedger ledger = null;
+    private GameRules gameRules = null;
+    // Last turn played, -1 until the game starts
+    private int playedTurns = -1;
 
     /**
      * Constructor for Game
      *
      * @param numberOfTurns  the number of turns for the game
-     * @param monthlyUpdates the monthly updates for the game
-     * @param consumers      the initial consumers for the game
+     * @param monthlyUpdates the monthly updates for the game, consumed one month per turn
+     * @param consumers      the initial consumers for the game, iterated once when the game
+     *                       starts (they may be created lazily, one at a time)
      * @param distributors   the initial distributors for the game
+     * @param producers      the initial producers for the game
      */
-    public Game(final int numberOfTurns, final JSONArray monthlyUpdates,
-                final List<Consumer> consumers, final List<Distributor> distributors,
+    public Game(final int numberOfTurns, final Iterator<MonthlyUpdate> monthlyUpdates,
+                final Iterable<Consumer> consumers, final List<Distributor> distributors,
                 final List<Producer> producers) {
         this.numberOfTurns = numberOfTurns;
         this.monthlyUpdates = monthlyUpdates;
-        this.consumers = consumers;
-        this.distributors = distributors;
-        this.producers = producers;
+        this.initialConsumers = consumers;
+        this.initialDistributors = distributors;
+        this.initialProducers = producers;
+    }
+
+    /**
+     * @param executionMode how the consumer phases of every month are executed
+     */
+    public void setExecutionMode(final ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * @param consumerStoreType how the consumers are stored during the game
+     */
+    public void setConsumerStoreType(final ConsumerStoreType consumerStoreType) {
+        this.consumerStoreType = consumerStoreType;
+    }
+
+    /**
+     * @param statisticsEnabled true to record the time and the entities touched by every phase
+     */
+    public void setStatisticsEnabled(final boolean statisticsEnabled) {
+        this.statisticsEnabled = statisticsEnabled;
+    }
+
+    /**
+     * @return statistics of the phases of the last game played (empty if they were disabled)
+     */
+    public GameStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param phaseObserver notified around every phase of the game, null for none
+     */
+    public void setPhaseObserver(final PhaseObserver phaseObserver) {
+        this.phaseObserver = phaseObserver;
+    }
+
+    /**
+     * @return the number of turns for the game
+     */
+    int getNumberOfTurns() {
+        return numberOfTurns;
+    }
+
+    /**
+     * @return the initial consumers (null once the game started)
+     */
+    Iterable<Consumer> getInitialConsumers() {
+        return initialConsumers;
+    }
+
+    /**
+     * @return the initial distributors
+     */
+    List<Distributor> getInitialDistributors() {
+        return initialDistributors;
+    }
+
+    /**
+     * @return the initial producers
+     */
+    List<Producer> getInitialProducers() {
+        return initialProducers;
+    }
+
+    /**
+     * @return the monthly updates that have not been consumed yet
+     */
+    public Iterator<MonthlyUpdate> getMonthlyUpdates() {
+        return monthlyUpdates;
+    }
+
+    /**
+     * Writes a snapshot of the game every few turns, so that a failed run can be resumed
+     *
+     * @param path     snapshot file (replaced by every new snapshot)
+     * @param interval number of turns between two snapshots, positive
+     */
+    public void setCheckpoint(final String path, final int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The checkpoint interval must be positive, not "
+                    + interval + ".");
+        }
+        this.checkpointPath = Paths.get(path);
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Resumes the game from a snapshot instead of starting it from the initial data. The
+     * months the snapshot already played are skipped from the monthly updates.
+     *
+     * @param path snapshot file written by a game with the same input
+     */
+    public void setResumeSnapshot(final String path) {
+        this.resumePath = Paths.get(path);
+    }
+
+    /**
+     * Starts game by doing all tasks necessary each month (or resumes it from a snapshot) and
+     * plays it to the end
+     *
+     * @throws IOException in case of failure when reading or writing a snapshot
+     */
+    public void startGame() throws IOException {
+        playUntil(numberOfTurns);
+    }
+
+    /**
+     * Plays the game up to the end of a turn, starting it (or resuming it from its snapshot)
+     * first. The game can then be forked into branches (see Scenario.createBranch) and played
+     * further, by itself or by its branches.
+     *
+     * @param turn last turn to be played, 0 stops the game after the initial round
+     * @throws IOException in case of failure when reading or writing a snapshot
+     */
+    public void playUntil(final int turn) throws IOException {
+        if (turn > numberOfTurns) {
+            throw new IllegalArgumentException("The game has no turn " + turn + ".");
+        }
+        if (gameRules == null) {
+            start();
+        }
+        if (turn < playedTurns) {
+            throw new IllegalArgumentException("The game already played turn " + playedTurns
+                    + ", it cannot stop at turn " + turn + ".");
+        }
+        gameRules.setExecutionMode(executionMode);
+        playMonths(turn);
     }
 
     /**
-     * Starts game by doing all tasks necessary each month
+     * @return the last turn played, -1 if the game has not started
      */
-    public void startGame() {
-        GameRules gameRules = new GameRules(consumers, distributors, producers,
-                bankruptConsumers, bankruptDistributors);
+    int getPlayedTurns() {
+        return playedTurns;
+    }
+
+    /**
+     * Creates a branch of the game at the end of its last played turn: a game that continues
+     * from the same state with its own monthly updates. Nothing is replayed or written: the
+     * branch shares the columns of the consumers, of the ledger and of the expiry wheel with
+     * this game until one of the two writes them (see IntColumn.share) and the finished months
+     * of the producers' histories for good; only the distributors and the producers (and the
+     * consumers of an OBJECTS store) are copied. The branch is configured like this game.
+     *
+     * @param updates monthly updates of the branch, from the month after the last played turn
+     * @return branch that continues with the next turn when it is played
+     */
+    Game fork(final Iterator<MonthlyUpdate> updates) {
+        if (gameRules == null) {
+            throw new IllegalStateException("The game has not started yet.");
+        }
+
+        Game branch = new Game(numberOfTurns, updates, null, Collections.emptyList(),
+                Collections.emptyList());
+        branch.executionMode = executionMode;
+        branch.consumerStoreType = consumerStoreType;
+        branch.statisticsEnabled = statisticsEnabled;
+        branch.ledger = ledger.fork();
+        branch.consumers = consumers.fork(branch.ledger);
+        for (Producer producer : producers.list()) {
+            branch.producers.register(producer.copy());
+        }
+        // Registered in index order, so the contracts of the ledger still point to them
+        for (int i = 0; i < distributors.size(); ++i) {
+            branch.distributors.register(distributors.get(i).copy(branch.producers::getByID));
+            if (!distributors.isActive(i)) {
+                branch.distributors.deactivate(i);
+            }
+        }
+
+        branch.gameRules = new GameRules(branch.consumers, branch.distributors,
+                branch.producers, branch.ledger);
+        branch.gameRules.createObservers();
+        branch.gameRules.forkExpiries(gameRules);
+        branch.statistics = new GameStatistics(numberOfTurns + 1, statisticsEnabled);
+        branch.playedTurns = playedTurns;
+        return branch;
+    }
+
+    /**
+     * Creates the state of the game, from the initial data (and plays the initial round) or
+     * from the snapshot to resume
+     *
+     * @throws IOException in case of failure when reading the snapshot
+     */
+    private void start() throws IOException {
+        int firstMonth = 0;
+
+        if (resumePath == null) {
+            ledger = ConsumerStoreFactory.getInstance().createLedger(consumerStoreType);
+            // The store takes over the initial consumers one at a time, as they are iterated
+            consumers = ConsumerStoreFactory.getInstance().createStore(consumerStoreType,
+                    initialConsumers, ledger);
+            distributors.registerAll(initialDistributors);
+            producers.registerAll(initialProducers);
+        } else {
+            GameSnapshot snapshot = GameSnapshot.read(resumePath, consumerStoreType);
+            if (snapshot.getNumberOfTurns() != numberOfTurns) {
+                throw new IllegalArgumentException("The snapshot was taken from a game of "
+                        + snapshot.getNumberOfTurns() + " turns.");
+            }
+            ledger = snapshot.getLedger();
+            consumers = snapshot.getConsumers();
+            // Registered in index order, so the contracts of the ledger still point to them
+            distributors.registerAll(snapshot.getDistributors());
+            for (Distributor distributor : snapshot.getDistributors()) {
+                if (distributor.isBankrupt()) {
+                    distributors.deactivate(distributor.getIndex());
+                }
+            }
+            producers.registerAll(snapshot.getProducers());
+            firstMonth = snapshot.getTurn();
+        }
+        initialConsumers = null;
+
+        gameRules = new GameRules(consumers, distributors, producers, ledger);
+        gameRules.setExecutionMode(executionMode);
 
         gameRules.createObservers();
+        gameRules.scheduleExpiries(firstMonth);
         gameRules.createProducersHistory(numberOfTurns + 1);
+        statistics = new GameStatistics(numberOfTurns + 1, statisticsEnabled);
+
+        if (resumePath != null) {
+            // The snapshot already holds the effects of the months before it
+            for (int i = 0; i < firstMonth; ++i) {
+                monthlyUpdates.next();
+            }
+            playedTurns = firstMonth;
+            return;
+        }
 
         // Round 0
-        gameRules.assignProducers(0);
-        gameRules.createContracts();
-        gameRules.signContracts();
-        gameRules.updatePlayersBudgets();
-
-        // Updates game state each month
-        for (int i = 0; i < numberOfTurns; ++i) {
-            JSONObject object = (JSONObject) monthlyUpdates.get(i);
-            JSONArray distributorChanges = (JSONArray) object.get("distributorChanges");
-            JSONArray newConsumers = (JSONArray) object.get("newConsumers");
-            JSONArray producersChanges = (JSONArray) object.get("producerChanges");
-            gameRules.updateDistributors(distributorChanges);
-            gameRules.updateConsumers(newConsumers);
-            gameRules.createContracts();
-            gameRules.purgePaidContracts();
-            gameRules.signContracts();
-            gameRules.updatePlayersBudgets();
-            gameRules.purgeCanceledContracts();
-            gameRules.purgeBrokePlayers();
-            gameRules.updateProducers(producersChanges);
-            gameRules.prepareProducers(i + 1);
-            gameRules.assignProducers(i + 1);
-        }
-    }
-
-    /**
-     * Finish the game by combining and sorting all normal and broke entities by their ID and
-     * prepares them for output
+        TurnEvent roundZero = new TurnEvent(0);
+        roundZero.begin();
+        runPhase(0, GamePhase.ASSIGN_PRODUCERS, () -> gameRules.assignProducers(0));
+        runPhase(0, GamePhase.CREATE_CONTRACTS, gameRules::createContracts);
+        runPhase(0, GamePhase.SIGN_CONTRACTS, gameRules::signContracts);
+        runPhase(0, GamePhase.UPDATE_BUDGETS, gameRules::updatePlayersBudgets);
+        commitTurn(roundZero);
+        playedTurns = 0;
+    }
+
+    /**
+     * Updates game state each month, from the month after the last played turn to the given
+     * turn
      *
-     * @param writer used to prepare data for output writing
-     * @return JSONObject that contains all entities for output
+     * @param lastTurn last turn to be played
+     * @throws IOException in case of failure when writing a snapshot
      */
-    public JSONObject finishGame(final Writer writer) {
-        // Append and sort consumers and bankrupt consumers
-        List<Consumer> totalConsumers = Stream.of(consumers, bankruptConsumers)
-                .flatMap(Collection::stream).sorted(Comparator.comparingInt(Consumer::getID))
-                .collect(Collectors.toList());
+    private void playMonths(final int lastTurn) throws IOException {
+        for (int i = playedTurns; i < lastTurn; ++i) {
+            int turn = i + 1;
+            TurnEvent turnEvent = new TurnEvent(turn);
+            turnEvent.begin();
+            MonthlyUpdate update = monthlyUpdates.next();
+            runPhase(turn, GamePhase.UPDATE_DISTRIBUTORS, () -> gameRules.updateDistributors(
+                    update.getDistributorChanges()));
+            runPhase(turn, GamePhase.UPDATE_CONSUMERS, () -> gameRules.updateConsumers(
+                    update.getNewConsumers()));
+            runPhase(turn, GamePhase.CREATE_CONTRACTS, gameRules::createContracts);
+            runPhase(turn, GamePhase.PURGE_PAID_CONTRACTS, gameRules::purgePaidContracts);
+            runPhase(turn, GamePhase.SIGN_CONTRACTS, gameRules::signContracts);
+            runPhase(turn, GamePhase.UPDATE_BUDGETS, gameRules::updatePlayersBudgets);
+            runPhase(turn, GamePhase.PURGE_CANCELED_CONTRACTS, gameRules::purgeCanceledContracts);
+            runPhase(turn, GamePhase.PURGE_BROKE_PLAYERS, gameRules::purgeBrokePlayers);
+            runPhase(turn, GamePhase.UPDATE_PRODUCERS, () -> gameRules.updateProducers(
+                    update.getProducerChanges()));
+            runPhase(turn, GamePhase.PREPARE_PRODUCERS, () -> gameRules.prepareProducers(turn));
+            runPhase(turn, GamePhase.ASSIGN_PRODUCERS, () -> gameRules.assignProducers(turn));
+            commitTurn(turnEvent);
+            playedTurns = turn;
 
-        // Append and sort distributors and bankrupt distributors
-        List<Distributor> totalDistributors = Stream.of(distributors, bankruptDistributors)
-                .flatMap(Collection::stream).sorted(Comparator.comparingInt(Distributor::getID))
-                .collect(Collectors.toList());
+            if (checkpointPath != null && turn % checkpointInterval == 0) {
+                GameSnapshot.write(checkpointPath, numberOfTurns, turn, ledger, consumers,
+                        distributors.list(), producers.list());
+            }
+        }
+    }
 
-        // Sort producers by ID
-        producers.sort(Comparator.comparingInt(Producer::getID));
+    /**
+     * Runs one phase of a turn, records it in the statistics and notifies the phase observer
+     *
+     * @param turn  turn of the phase
+     * @param phase phase that is run
+     * @param body  the phase, returns the number of entities it touched
+     */
+    private void runPhase(final int turn, final GamePhase phase, final IntSupplier body) {
+        if (phaseObserver != null) {
+            phaseObserver.beforePhase(turn, phase);
+        }
+        long start = statistics.start();
+        int touched = body.getAsInt();
+        statistics.record(turn, phase, start, touched);
+        if (phaseObserver != null) {
+            phaseObserver.afterPhase(turn, phase);
+        }
+    }
+
+    /**
+     * Ends the flight recorder event of a turn
+     *
+     * @param event event of the turn
+     */
+    private void commitTurn(final TurnEvent event) {
+        if (event.shouldCommit()) {
+            event.setPlayers(consumers.size(), distributors.activeCount());
+            event.commit();
+        }
+    }
 
-        return writer.writeFile(totalConsumers, totalDistributors, producers);
+    /**
+     * Sums up the finished game (used to compare games played from the same input)
+     *
+     * @return outcome of the game
+     */
+    public GameOutcome getOutcome() {
+        int bankruptConsumers = 0;
+        long consumerBudgets = 0;
+        for (int i = 0; i < consumers.size(); ++i) {
+            if (consumers.isBankrupt(i)) {
+                ++bankruptConsumers;
+            } else {
+                consumerBudgets += consumers.view(i).getBudget();
+            }
+        }
+
+        long distributorBudgets = 0;
+        for (int i = distributors.nextActive(0); i >= 0; i = distributors.nextActive(i + 1)) {
+            distributorBudgets += distributors.get(i).getBudget();
+        }
+
+        long supplied = 0;
+        long capacity = 0;
+        for (Producer producer : producers.list()) {
+            // Bankrupt distributors keep their producers until they are purged, they are not
+            // supplied any more
+            DistributorHistory history = producer.getDistributors();
+            for (int id : history.getMonth(history.getMonths() - 1)) {
+                if (distributors.isActive(distributors.indexOf(id))) {
+                    ++supplied;
+                }
+            }
+            capacity += producer.getMaxDistributors();
+        }
+
+        return new GameOutcome(consumers.size(), bankruptConsumers, consumerBudgets,
+                distributors.size(), distributors.size() - distributors.activeCount(),
+                distributorBudgets, capacity > 0 ? (double) supplied / capacity : 0);
+    }
+
+    /**
+     * Finish the game by streaming all the entities to the output, in ID order. The consumer
+     * store and the registries keep their entities in ID order (bankrupt ones included), so
+     * nothing is sorted or copied here.
+     *
+     * @param writer used to write the entities to the output
+     */
+    public void finishGame(final Writer writer) {
+        writer.writeFile(consumers.viewInIdOrder(), distributors.inIdOrder(),
+                producers.inIdOrder());
     }
 }
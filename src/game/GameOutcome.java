@@ -0,0 +1,116 @@
+package game;
+
+/**
+ * Summary of a finished game: how many players survived, how much money they were left with
+ * and how much of the producers' capacity was used in the last month
+ */
+public final class GameOutcome {
+    private static final String SEPARATOR = " ";
+    private static final int FIELDS = 7;
+    private final int consumers;
+    private final int bankruptConsumers;
+    private final long consumerBudgets;
+    private final int distributors;
+    private final int bankruptDistributors;
+    private final long distributorBudgets;
+    private final double producerUtilization;
+
+    /**
+     * @param consumers            number of consumers, the bankrupt ones included
+     * @param bankruptConsumers    number of bankrupt consumers
+     * @param consumerBudgets      total budget of the consumers that are not bankrupt
+     * @param distributors         number of distributors, the bankrupt ones included
+     * @param bankruptDistributors number of bankrupt distributors
+     * @param distributorBudgets   total budget of the distributors that are not bankrupt
+     * @param producerUtilization  active distributors supplied by the producers over the maximum
+     *                             number of distributors they support
+     */
+    GameOutcome(final int consumers, final int bankruptConsumers, final long consumerBudgets,
+                final int distributors, final int bankruptDistributors,
+                final long distributorBudgets, final double producerUtilization) {
+        this.consumers = consumers;
+        this.bankruptConsumers = bankruptConsumers;
+        this.consumerBudgets = consumerBudgets;
+        this.distributors = distributors;
+        this.bankruptDistributors = bankruptDistributors;
+        this.distributorBudgets = distributorBudgets;
+        this.producerUtilization = producerUtilization;
+    }
+
+    /**
+     * @return number of consumers, the bankrupt ones included
+     */
+    public int getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * @return number of bankrupt consumers
+     */
+    public int getBankruptConsumers() {
+        return bankruptConsumers;
+    }
+
+    /**
+     * @return total budget of the consumers that are not bankrupt
+     */
+    public long getConsumerBudgets() {
+        return consumerBudgets;
+    }
+
+    /**
+     * @return number of distributors, the bankrupt ones included
+     */
+    public int getDistributors() {
+        return distributors;
+    }
+
+    /**
+     * @return number of bankrupt distributors
+     */
+    public int getBankruptDistributors() {
+        return bankruptDistributors;
+    }
+
+    /**
+     * @return total budget of the distributors that are not bankrupt
+     */
+    public long getDistributorBudgets() {
+        return distributorBudgets;
+    }
+
+    /**
+     * @return fraction of the producers' capacity used by active distributors in the last
+     * month, between 0 and 1
+     */
+    public double getProducerUtilization() {
+        return producerUtilization;
+    }
+
+    /**
+     * @return the outcome as one line of text, read back by decode (used to send the outcome
+     * of a game from a worker process)
+     */
+    public String encode() {
+        return String.join(SEPARATOR, String.valueOf(consumers),
+                String.valueOf(bankruptConsumers), String.valueOf(consumerBudgets),
+                String.valueOf(distributors), String.valueOf(bankruptDistributors),
+                String.valueOf(distributorBudgets), String.valueOf(producerUtilization));
+    }
+
+    /**
+     * @param line outcome written by encode
+     * @return the outcome
+     */
+    public static GameOutcome decode(final String line) {
+        String[] fields = line.split(SEPARATOR);
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException("Malformed outcome " + line + ".");
+        }
+        int field = 0;
+        return new GameOutcome(Integer.parseInt(fields[field++]),
+                Integer.parseInt(fields[field++]), Long.parseLong(fields[field++]),
+                Integer.parseInt(fields[field++]), Integer.parseInt(fields[field++]),
+                Long.parseLong(fields[field++]), Double.parseDouble(fields[field]));
+    }
+}
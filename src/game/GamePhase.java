@@ -0,0 +1,18 @@
+package game;
+
+/**
+ * Phases of a month of the game, in the order they are played
+ */
+public enum GamePhase {
+    UPDATE_DISTRIBUTORS,
+    UPDATE_CONSUMERS,
+    CREATE_CONTRACTS,
+    PURGE_PAID_CONTRACTS,
+    SIGN_CONTRACTS,
+    UPDATE_BUDGETS,
+    PURGE_CANCELED_CONTRACTS,
+    PURGE_BROKE_PLAYERS,
+    UPDATE_PRODUCERS,
+    PREPARE_PRODUCERS,
+    ASSIGN_PRODUCERS
+}
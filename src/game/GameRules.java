@@ -1,48 +1,82 @@
 package game;
 
 import entities.Consumer;
+import entities.ConsumerStore;
 import entities.Distributor;
-import entities.EntityFactory;
+import entities.EntityRegistry;
 import entities.Producer;
-import entities.EntityType;
-import entities.Contract;
-import observer.Observable;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import strategies.EnergyChoiceStrategy;
-import strategies.EnergyChoiceStrategyFactory;
-
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
+import entities.ContractLedger;
+import entities.IntList;
+import entities.MarkedIndices;
+import strategies.EnergyChoiceStrategyType;
+import strategies.ProducerRankings;
+
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 
-public final class GameRules extends Observable {
-    private final List<Consumer> consumers;
-    private final List<Distributor> distributors;
-    private final List<Consumer> bankruptConsumers;
-    private final List<Distributor> bankruptDistributors;
+public final class GameRules {
+    private final ConsumerStore consumers;
+    private final EntityRegistry<Distributor> distributorRegistry;
+    private final EntityRegistry<Producer> producerRegistry;
     private final List<Producer> producers;
+    private final ProducerRankings producerRankings;
+    private final ProducerSubscriptions subscriptions;
+    private final MarkedIndices dirtyCosts = new MarkedIndices();
+    private final DistributorHeap cheapest = new DistributorHeap();
+    private final ContractLedger ledger;
+    private ExpiryWheel expiries;
+    private ConsumerPartitions consumerPartitions = new ConsumerPartitions(null);
 
     /**
-     * Constructor for the GameRules class
+     * Constructor for the GameRules class. The distributors that are not active in their
+     * registry (the bankrupt ones of a resumed game) stay out of the game.
      *
-     * @param consumers            list of consumers
-     * @param distributors         list of distributors
-     * @param producers            list of producers
-     * @param bankruptConsumers    list of bankrupt consumers
-     * @param bankruptDistributors list of bankrupt distributors
+     * @param consumers    store of consumers (bankrupt consumers stay in the store)
+     * @param distributors registry of all the distributors, in the order of the input
+     * @param producers    registry of all the producers
+     * @param ledger       ledger that holds all the contracts of the game
      */
-    GameRules(final List<Consumer> consumers, final List<Distributor> distributors,
-              final List<Producer> producers,
-              final List<Consumer> bankruptConsumers,
-              final List<Distributor> bankruptDistributors) {
+    GameRules(final ConsumerStore consumers, final EntityRegistry<Distributor> distributors,
+              final EntityRegistry<Producer> producers, final ContractLedger ledger) {
         this.consumers = consumers;
-        this.distributors = distributors;
-        this.bankruptConsumers = bankruptConsumers;
-        this.bankruptDistributors = bankruptDistributors;
-        this.producers = producers;
+        this.distributorRegistry = distributors;
+        this.producerRegistry = producers;
+        this.producers = producers.list();
+        this.ledger = ledger;
+        this.expiries = new ExpiryWheel(0, ledger.getStorage());
+
+        // The distributors keep their contracts in the ledger, by their dense index
+        for (Distributor distributor : distributors.list()) {
+            distributor.attachLedger(ledger);
+        }
+
+        // Orders the producers once for every strategy
+        producerRankings = new ProducerRankings(this.producers);
+        subscriptions = new ProducerSubscriptions(this.producers.size());
+
+        // Every distributor in the game is priced before the first signing
+        for (int i = distributors.nextActive(0); i >= 0; i = distributors.nextActive(i + 1)) {
+            cheapest.update(i, distributors.get(i).getContractCost());
+            dirtyCosts.mark(i);
+        }
+    }
+
+    /**
+     * Chooses how the consumer phases are executed. In parallel mode, the consumers are split
+     * into partitions processed with fork-join and the effects on the distributors are applied
+     * afterwards in the consumers' order, so the result is identical to the sequential mode.
+     *
+     * @param mode execution mode of the consumer phases
+     */
+    void setExecutionMode(final ExecutionMode mode) {
+        consumerPartitions = new ConsumerPartitions(
+                mode == ExecutionMode.PARALLEL ? ForkJoinPool.commonPool() : null);
+        if (mode == ExecutionMode.PARALLEL) {
+            // The state shared with a fork is copied now rather than by a worker thread
+            consumers.prepareConcurrentUpdates();
+        }
     }
 
     /**
@@ -60,58 +94,65 @@ public final class GameRules extends Observable {
     /**
      * Updates the distributors' infrastructure cost in the game
      *
-     * @param distributorChanges array that contains changes made for any particular distributor
+     * @param distributorChanges list that contains changes made for any particular distributor
+     * @return number of distributors changed
      */
-    void updateDistributors(final JSONArray distributorChanges) {
-        // Changes a distributor's costs
-        for (Object distributorChange : distributorChanges) {
-            JSONObject changes = (JSONObject) distributorChange;
-            int id = ((Long) changes.get("id")).intValue();
-            for (Distributor distributor : distributors) {
-                if (distributor.getID() == id) {
-                    distributor.updateCosts(
-                            ((Long) changes.get("infrastructureCost")).intValue()
-                    );
-                    break;
-                }
+    int updateDistributors(final List<DistributorChange> distributorChanges) {
+        int changed = 0;
+        // Changes a distributor's costs (purged distributors are no longer in the game, the ones
+        // gone bankrupt since the last purge still are)
+        for (DistributorChange change : distributorChanges) {
+            Distributor distributor = distributorRegistry.getByID(change.getID());
+            if (distributor != null && distributorRegistry.isActive(distributor.getIndex())) {
+                distributor.updateCosts(change.getInfrastructureCost());
+                dirtyCosts.mark(distributor.getIndex());
+                ++changed;
             }
         }
+        return changed;
     }
 
     /**
      * Adds new consumers to the game
      *
-     * @param newConsumers array that contains new consumers
+     * @param newConsumers list that contains new consumers
+     * @return number of consumers added
      */
-    void updateConsumers(final JSONArray newConsumers) {
-        EntityFactory factory = EntityFactory.getInstance();
-
-        // Adds a new Consumer to the Game
-        for (Object newConsumer : newConsumers) {
-            consumers.add(
-                    (Consumer) factory.createEntity(EntityType.CONSUMER,
-                            (JSONObject) newConsumer)
-            );
+    int updateConsumers(final List<Consumer> newConsumers) {
+        // Adds the new Consumers to the Game
+        for (Consumer consumer : newConsumers) {
+            consumers.add(consumer);
         }
+        return newConsumers.size();
     }
 
     /**
-     * Updates the producers' energy per distributor in the game
+     * Updates the producers' energy per distributor in the game. Every changed producer
+     * notifies only the distributors that take energy from it, once per month no matter how
+     * many times it changed.
      *
-     * @param producersChanges array that contains changes made for any particular producer
+     * @param producersChanges list that contains changes made for any particular producer
+     * @return number of producers re-sorted in the rankings
      */
-    void updateProducers(final JSONArray producersChanges) {
-        for (Object producerChanges : producersChanges) {
-            JSONObject producerChangeData = (JSONObject) producerChanges;
-            int id = ((Long) producerChangeData.get("id")).intValue();
-            for (Producer producer : producers) {
-                if (producer.getID() == id) {
-                    producer.setEnergyPerDistributor(((Long) producerChangeData.get(
-                            "energyPerDistributor")).intValue());
-                    notifyObservers(producer.getID());
-                }
+    int updateProducers(final List<ProducerChange> producersChanges) {
+        int changed = 0;
+        for (ProducerChange change : producersChanges) {
+            Producer producer = producerRegistry.getByID(change.getID());
+            if (producer != null) {
+                producerRankings.updateEnergyPerDistributor(producer,
+                        change.getEnergyPerDistributor());
+                subscriptions.markChanged(producer.getIndex());
+                ++changed;
             }
         }
+
+        MarkedIndices changedProducers = subscriptions.getChangedProducers();
+        for (int i = 0; i < changedProducers.size(); ++i) {
+            int producer = changedProducers.get(i);
+            subscriptions.notifySubscribers(producer, producerRegistry.get(producer).getID());
+        }
+        subscriptions.clearChanged();
+        return changed;
     }
 
     /**
@@ -119,166 +160,277 @@ public final class GameRules extends Observable {
      * remove selectively any distributor in the list so that the game advances accordingly.
      *
      * @param currentTurn used to get the index of the current turn
+     * @return number of producers prepared
      */
-    void prepareProducers(int currentTurn) {
+    int prepareProducers(int currentTurn) {
         for (Producer producer : producers) {
             producer.updateExpectedDistributors(currentTurn);
         }
+        return producers.size();
     }
 
     /**
      * Assigns new producers to a distributor that requires one. If a distributor's producer
      * changed, it is removed from the producers' lists and all of the producers assigned to the
-     * distributor are deleted. The strategy is applied for sorting after which a producer that
-     * is not full is assigned to the distributor.
+     * distributor are deleted. The producers that are not full are walked in the order kept by
+     * the ranking of the distributor's strategy and assigned to the distributor.
      *
      * @param currentTurn used to get the index of the current turn
+     * @return number of distributors that got new producers
      */
-    void assignProducers(int currentTurn) {
-        EnergyChoiceStrategyFactory factory = EnergyChoiceStrategyFactory.getInstance();
-
-        // Parse all distributors
-        for (Distributor distributor : distributors) {
+    int assignProducers(int currentTurn) {
+        int reassigned = 0;
+        // Parse all distributors in the game
+        for (int i = distributorRegistry.nextActive(0); i >= 0;
+             i = distributorRegistry.nextActive(i + 1)) {
+            Distributor distributor = distributorRegistry.get(i);
             // Check if the distributor has a producer that changed its values
             if (distributor.isAnyProducerAltered()) {
+                ProducerAssignmentEvent event = new ProducerAssignmentEvent();
+                event.begin();
                 int energy = 0;
-                EnergyChoiceStrategy strategy = factory.createStrategy(distributor.getStrategy(),
-                        producers);
+                EnergyChoiceStrategyType strategy = distributor.getStrategy();
 
                 // Removes the distributor from all the producers
                 for (Producer producer : distributor.getProducers()) {
-                    producer.removeDistributor(distributor.getID(), currentTurn);
+                    producerRankings.release(producer, distributor.getID(), currentTurn);
+                    subscriptions.unsubscribe(producer.getIndex(), distributor);
                 }
 
                 // The distributor clears its producers list
                 distributor.resetProducers();
 
-                // The strategy is applied for sorting
-                strategy.sortProducersByStrategy();
-
                 /*
-                Finds the required amount of producers (that are not full), to satisfy the
-                energy needs
+                Takes the required amount of producers to satisfy the energy needs, in the order
+                given by the strategy. Only the producers that are not full are walked.
                  */
-                for (Producer producer : producers) {
-                    if (!producer.isFull(currentTurn)) {
-                        energy += producer.getEnergyPerDistributor();
-                        distributor.addProducers(producer);
-                        producer.addDistributors(distributor.getID(), currentTurn);
-                        if (energy >= distributor.getEnergyNeeded()) {
-                            break;
-                        }
+                Producer candidate = producerRankings.firstAvailable(strategy);
+                while (candidate != null) {
+                    energy += candidate.getEnergyPerDistributor();
+                    distributor.addProducers(candidate);
+                    producerRankings.assign(candidate, distributor.getID(), currentTurn);
+                    subscriptions.subscribe(candidate.getIndex(), distributor);
+                    if (energy >= distributor.getEnergyNeeded()) {
+                        break;
                     }
+                    candidate = producerRankings.nextAvailable(strategy, candidate);
                 }
                 // Updates distributor production cost
                 distributor.updateProductionCost();
+                dirtyCosts.mark(distributor.getIndex());
+                ++reassigned;
+
+                if (event.shouldCommit()) {
+                    event.set(currentTurn, distributor.getID(),
+                            distributor.getStrategy().toString(),
+                            distributor.getProducers().stream()
+                                    .map(producer -> String.valueOf(producer.getID()))
+                                    .collect(Collectors.joining(",")),
+                            distributor.getProducers().size());
+                    event.commit();
+                }
             }
         }
+        return reassigned;
     }
 
     /**
-     * Creates new contracts for the consumer's to choose from
+     * Creates new contracts for the consumer's to choose from. The cost of a contract only
+     * depends on the infrastructure cost, the production cost and the number of contracts, so
+     * only the distributors where one of them changed since the last pricing are priced again.
+     *
+     * @return number of distributors that priced a contract
      */
-    void createContracts() {
-        for (Distributor distributor : distributors) {
-            distributor.updateContractCost();
+    int createContracts() {
+        MarkedIndices changedContracts = ledger.getChangedContractors();
+        for (int i = 0; i < changedContracts.size(); ++i) {
+            dirtyCosts.mark(changedContracts.get(i));
         }
-    }
+        changedContracts.clear();
 
-    /**
-     * Takes out the broke entities from the normal lists and adds them to the bankrupt lists
-     */
-    void purgeBrokePlayers() {
-        Iterator<Consumer> itConsumer = consumers.iterator();
-
-        // Consumers
-        while (itConsumer.hasNext()) {
-            Consumer consumer = itConsumer.next();
-            if (consumer.isBankrupt()) {
-                bankruptConsumers.add(consumer);
-                itConsumer.remove();
+        int priced = 0;
+        for (int i = 0; i < dirtyCosts.size(); ++i) {
+            int index = dirtyCosts.get(i);
+            // Distributors taken out of the game are no longer priced
+            if (distributorRegistry.isActive(index)) {
+                Distributor distributor = distributorRegistry.get(index);
+                distributor.updateContractCost();
+                cheapest.update(index, distributor.getContractCost());
+                ++priced;
             }
         }
+        dirtyCosts.clear();
+        return priced;
+    }
 
-        Iterator<Distributor> itDistributor = distributors.iterator();
+    /**
+     * Takes the broke distributors out of the game: they stay in the registry and only leave
+     * its active set. Broke consumers stay in their store, which skips them from now on.
+     *
+     * @return number of distributors that went bankrupt
+     */
+    int purgeBrokePlayers() {
+        int bankruptcies = 0;
 
         // Distributors
-        while (itDistributor.hasNext()) {
-            Distributor distributor = itDistributor.next();
+        for (int i = distributorRegistry.nextActive(0); i >= 0;
+             i = distributorRegistry.nextActive(i + 1)) {
+            Distributor distributor = distributorRegistry.get(i);
             if (distributor.isBankrupt()) {
-                bankruptDistributors.add(distributor);
-                itDistributor.remove();
+                distributorRegistry.deactivate(i);
+                cheapest.remove(i);
+                ++bankruptcies;
+
+                BankruptcyEvent event = new BankruptcyEvent();
+                if (event.shouldCommit()) {
+                    event.set(distributor.getID(), distributor.getBudget());
+                    event.commit();
+                }
             }
         }
+        return bankruptcies;
     }
 
     /**
-     * Removes all paid contracts from all entities
+     * Removes all paid contracts from all entities. Only the contracts that expire this month
+     * are checked, the others are waiting in the expiry wheel.
+     *
+     * @return number of contracts removed
      */
-    void purgePaidContracts() {
-        for (Consumer consumer : consumers) {
-            consumer.purgePaidContract();
-        }
+    int purgePaidContracts() {
+        int purged = 0;
+        for (int entry = expiries.advance(); entry != ExpiryWheel.NONE;
+             entry = expiries.next(entry)) {
+            int consumer = expiries.getConsumer(entry);
+            int contract = expiries.getContract(entry);
+            // The contract was canceled and purged before (its handle may belong to a new one)
+            if (consumers.getContract(consumer) != contract) {
+                continue;
+            }
 
-        for (Distributor distributor : distributors) {
-            distributor.purgePaidContract();
+            // Consumers give up their paid contracts, then the ledger drops them in O(1) each
+            if (consumers.purgePaidContract(consumer) != ContractLedger.NONE) {
+                ledger.release(contract);
+                ++purged;
+            } else if (ledger.getRemainedMonths(contract) <= 0) {
+                // A penalty delayed the last payment, the contract may be paid next month
+                expiries.schedule(consumer, contract, expiries.getMonth() + 1);
+            }
         }
+        return purged;
     }
 
     /**
      * Removes all canceled contracts from all entities
+     *
+     * @return number of contracts removed
      */
-    void purgeCanceledContracts() {
-        for (Consumer consumer : consumers) {
-            consumer.purgeCanceledContract();
+    int purgeCanceledContracts() {
+        // Consumers give up their canceled contracts, then the ledger drops them in O(1) each
+        IntList canceled = consumerPartitions.collect(consumers.size(),
+                consumers::purgeCanceledContracts);
+        for (int i = 0; i < canceled.size(); ++i) {
+            ledger.release(canceled.get(i));
         }
+        return canceled.size();
+    }
 
-        for (Distributor distributor : distributors) {
-            distributor.purgeCanceledContract();
+    /**
+     * Subscribes every distributor of the game (bankrupt ones included) to the changes of the
+     * producers it takes energy from (none at the start of a game, the ones read from the
+     * snapshot when a game is resumed)
+     */
+    void createObservers() {
+        for (int i = 0; i < distributorRegistry.size(); ++i) {
+            Distributor distributor = distributorRegistry.get(i);
+            for (Producer producer : distributor.getProducers()) {
+                subscriptions.subscribe(producer.getIndex(), distributor);
+            }
         }
     }
 
-    void createObservers() {
-        for (Distributor distributor : distributors) {
-            addObserver(distributor);
+    /**
+     * Starts the expiry wheel and schedules the contracts the consumers already hold (the ones
+     * of a resumed game). A contract is paid off after its remaining months and purged in the
+     * month that follows.
+     *
+     * @param turn last finished turn
+     */
+    void scheduleExpiries(final int turn) {
+        expiries = new ExpiryWheel(turn, ledger.getStorage());
+        for (int i = 0; i < consumers.size(); ++i) {
+            int contract = consumers.getContract(i);
+            if (contract != ContractLedger.NONE) {
+                expiries.schedule(i, contract,
+                        turn + 1 + Math.max(ledger.getRemainedMonths(contract), 0));
+            }
         }
     }
 
+    /**
+     * Continues the expiry wheel of the game this one was forked from (the ledger and the
+     * consumers are copies of its own, with the same handles and indices)
+     *
+     * @param trunk rules of the game at the fork point
+     */
+    void forkExpiries(final GameRules trunk) {
+        expiries = trunk.expiries.fork();
+    }
+
     /**
      * Assigns a contract between the best distributor and all consumers without a contract
+     *
+     * @return number of contracts signed
      */
-    void signContracts() {
-        if (!distributors.isEmpty()) {
-            // Get the distributor with the minimum cost for a contract
-            Distributor distributor = Collections.min(distributors,
-                    Comparator.comparingInt(Distributor::getContractCost));
-
-            // Assign contracts for all consumers that don't have a contract
-            for (Consumer consumer : consumers) {
-                if (!consumer.signedContract()) {
-                    Contract contract = new Contract(distributor.getID(), consumer.getID(),
-                            distributor.getContractCost(), distributor.getContractLength());
-                    consumer.signContract(contract);
-                    distributor.signContract(contract);
-                }
-            }
+    int signContracts() {
+        if (cheapest.peek() < 0) {
+            return 0;
         }
+
+        ContractSigningEvent event = new ContractSigningEvent();
+        event.begin();
+
+        // Get the distributor with the minimum cost for a contract (the first one on ties)
+        Distributor distributor = distributorRegistry.get(cheapest.peek());
+
+        // Assign contracts for all consumers that don't have a contract
+        IntList unsigned = consumerPartitions.collect(consumers.size(),
+                consumers::findUnsigned);
+
+        // The distributor receives the contracts in the consumers' order
+        int expiry = expiries.getMonth() + Math.max(distributor.getContractLength(), 1);
+        for (int i = 0; i < unsigned.size(); ++i) {
+            int consumer = unsigned.get(i);
+            int contract = ledger.sign(distributor.getIndex(), consumers.getID(consumer),
+                    distributor.getContractCost(), distributor.getContractLength());
+            consumers.signContract(consumer, contract);
+            expiries.schedule(consumer, contract, expiry);
+        }
+
+        if (event.shouldCommit()) {
+            event.set(distributor.getID(), unsigned.size(), distributor.getContractCost(),
+                    distributor.getContractLength());
+            event.commit();
+        }
+        return unsigned.size();
     }
 
     /**
      * Updates an entity's budget and advances their monthly lease
+     *
+     * @return number of consumers (bankrupt ones included) and distributors visited
      */
-    void updatePlayersBudgets() {
+    int updatePlayersBudgets() {
         // Consumers get paid their salary and pay their lease
-        for (Consumer consumer : consumers) {
-            consumer.advanceBudget();
-            consumer.advanceLease();
-        }
+        consumerPartitions.forEach(consumers.size(), consumers::advanceBudgets);
 
         // Distributors pay their monthly expenses and get paid from the leases
-        for (Distributor distributor : distributors) {
+        for (int i = distributorRegistry.nextActive(0); i >= 0;
+             i = distributorRegistry.nextActive(i + 1)) {
+            Distributor distributor = distributorRegistry.get(i);
             distributor.advanceBudget();
             distributor.advanceLease();
         }
+        return consumers.size() + distributorRegistry.activeCount();
     }
 }
@@ -0,0 +1,183 @@
+package game;
+
+import entities.ConsumerStore;
+import entities.ConsumerStoreFactory;
+import entities.ConsumerStoreType;
+import entities.ContractLedger;
+import entities.Distributor;
+import entities.Producer;
+import snapshot.SnapshotInput;
+import snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a game at the end of a turn. The file holds a header (magic number,
+ * version, number of turns of the game and the last finished turn), then the ledger, the
+ * producers with their histories, all the distributors (in index order) and the consumer
+ * store. A snapshot is taken at the end of a turn, when the bankrupt distributors are exactly
+ * the inactive ones, so the active set is not written. The observers are not written either:
+ * GameRules subscribes every distributor again to its producers.
+ */
+final class GameSnapshot {
+    private static final int MAGIC = 0x454e5247;
+    private static final int VERSION = 2;
+    private final int numberOfTurns;
+    private final int turn;
+    private final ContractLedger ledger;
+    private final ConsumerStore consumers;
+    private final List<Distributor> distributors;
+    private final List<Producer> producers;
+
+    private GameSnapshot(final int numberOfTurns, final int turn, final ContractLedger ledger,
+                         final ConsumerStore consumers, final List<Distributor> distributors,
+                         final List<Producer> producers) {
+        this.numberOfTurns = numberOfTurns;
+        this.turn = turn;
+        this.ledger = ledger;
+        this.consumers = consumers;
+        this.distributors = distributors;
+        this.producers = producers;
+    }
+
+    /**
+     * Writes a snapshot. The file is first written next to the destination and then moved over
+     * it, so a failure while writing never leaves a broken snapshot behind.
+     *
+     * @param path          destination
+     * @param numberOfTurns number of turns of the game
+     * @param turn          last finished turn
+     * @param ledger        ledger of the game
+     * @param consumers     consumer store of the game
+     * @param distributors  all the distributors, in index order
+     * @param producers     producers
+     * @throws IOException in case of failure when writing
+     */
+    static void write(final Path path, final int numberOfTurns, final int turn,
+                      final ContractLedger ledger, final ConsumerStore consumers,
+                      final List<Distributor> distributors,
+                      final List<Producer> producers) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (SnapshotOutput output = new SnapshotOutput(temporary)) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(numberOfTurns);
+            output.writeInt(turn);
+
+            ledger.writeTo(output);
+            output.writeInt(producers.size());
+            for (Producer producer : producers) {
+                producer.writeTo(output);
+            }
+            writeDistributors(output, distributors);
+            consumers.writeTo(output);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot written by write
+     *
+     * @param path      snapshot file
+     * @param storeType type of the store the consumers (and the ledger) are read into
+     * @return the snapshot
+     * @throws IOException in case of failure when reading or if the file is not a snapshot
+     */
+    static GameSnapshot read(final Path path, final ConsumerStoreType storeType)
+            throws IOException {
+        try (SnapshotInput input = new SnapshotInput(path)) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException(path + " is not a snapshot of this version.");
+            }
+            int numberOfTurns = input.readInt();
+            int turn = input.readInt();
+
+            ContractLedger ledger = ConsumerStoreFactory.getInstance().readLedger(storeType,
+                    input);
+            int producerCount = input.readInt();
+            List<Producer> producers = new ArrayList<>(producerCount);
+            Map<Integer, Producer> producersByID = new HashMap<>();
+            for (int i = 0; i < producerCount; ++i) {
+                Producer producer = Producer.readFrom(input);
+                producers.add(producer);
+                producersByID.put(producer.getID(), producer);
+            }
+            List<Distributor> distributors = readDistributors(input, producersByID);
+            ConsumerStore consumers = ConsumerStoreFactory.getInstance().readStore(storeType,
+                    input, ledger);
+
+            return new GameSnapshot(numberOfTurns, turn, ledger, consumers, distributors,
+                    producers);
+        }
+    }
+
+    private static void writeDistributors(final SnapshotOutput output,
+                                          final List<Distributor> distributors)
+            throws IOException {
+        output.writeInt(distributors.size());
+        for (Distributor distributor : distributors) {
+            distributor.writeTo(output);
+        }
+    }
+
+    private static List<Distributor> readDistributors(final SnapshotInput input,
+                                                      final Map<Integer, Producer> producers)
+            throws IOException {
+        int count = input.readInt();
+        List<Distributor> distributors = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            distributors.add(Distributor.readFrom(input, producers::get));
+        }
+        return distributors;
+    }
+
+    /**
+     * @return number of turns of the game
+     */
+    int getNumberOfTurns() {
+        return numberOfTurns;
+    }
+
+    /**
+     * @return last finished turn
+     */
+    int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return ledger of the game
+     */
+    ContractLedger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * @return consumer store of the game
+     */
+    ConsumerStore getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * @return all the distributors, in index order
+     */
+    List<Distributor> getDistributors() {
+        return distributors;
+    }
+
+    /**
+     * @return producers
+     */
+    List<Producer> getProducers() {
+        return producers;
+    }
+}
@@ -0,0 +1,91 @@
+package game;
+
+/**
+ * Wall time, number of invocations and number of entities touched by every phase of every
+ * turn. Turn 0 is the initial round and turn i is the i-th month. A disabled instance does not
+ * read the clock and ignores every record, so the game pays one branch per phase.
+ */
+public final class GameStatistics {
+    private static final int PHASES = GamePhase.values().length;
+    private final boolean enabled;
+    private final long[] nanos;
+    private final int[] invocations;
+    private final long[] touched;
+
+    /**
+     * @param turns   number of turns recorded, the initial round included
+     * @param enabled false if nothing is recorded
+     */
+    GameStatistics(final int turns, final boolean enabled) {
+        this.enabled = enabled;
+        int cells = enabled ? turns * PHASES : 0;
+        nanos = new long[cells];
+        invocations = new int[cells];
+        touched = new long[cells];
+    }
+
+    /**
+     * @return true if the phases are recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return number of turns, the initial round included
+     */
+    public int getTurns() {
+        return invocations.length / PHASES;
+    }
+
+    /**
+     * @return start time of a phase, 0 if nothing is recorded
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records one invocation of a phase
+     *
+     * @param turn     turn of the invocation
+     * @param phase    phase that was invoked
+     * @param start    value returned by start() before the invocation
+     * @param entities number of entities the phase touched
+     */
+    void record(final int turn, final GamePhase phase, final long start, final int entities) {
+        if (enabled) {
+            int cell = turn * PHASES + phase.ordinal();
+            nanos[cell] += System.nanoTime() - start;
+            ++invocations[cell];
+            touched[cell] += entities;
+        }
+    }
+
+    /**
+     * @param turn  turn of the game
+     * @param phase phase of the turn
+     * @return wall time of the phase in the turn, in nanoseconds
+     */
+    public long getNanos(final int turn, final GamePhase phase) {
+        return nanos[turn * PHASES + phase.ordinal()];
+    }
+
+    /**
+     * @param turn  turn of the game
+     * @param phase phase of the turn
+     * @return number of invocations of the phase in the turn
+     */
+    public int getInvocations(final int turn, final GamePhase phase) {
+        return invocations[turn * PHASES + phase.ordinal()];
+    }
+
+    /**
+     * @param turn  turn of the game
+     * @param phase phase of the turn
+     * @return number of entities the phase touched in the turn
+     */
+    public long getTouched(final int turn, final GamePhase phase) {
+        return touched[turn * PHASES + phase.ordinal()];
+    }
+}
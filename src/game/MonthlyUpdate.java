@@ -0,0 +1,51 @@
+package game;
+
+import entities.Consumer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * All the updates that have to be applied in a single month of the game
+ */
+public final class MonthlyUpdate {
+    private final List<DistributorChange> distributorChanges;
+    private final List<Consumer> newConsumers;
+    private final List<ProducerChange> producerChanges;
+
+    /**
+     * Constructor for a monthly update
+     *
+     * @param distributorChanges changes of the distributors' infrastructure costs
+     * @param newConsumers       consumers that join the game this month
+     * @param producerChanges    changes of the producers' energy per distributor
+     */
+    public MonthlyUpdate(final List<DistributorChange> distributorChanges,
+                         final List<Consumer> newConsumers,
+                         final List<ProducerChange> producerChanges) {
+        this.distributorChanges = distributorChanges;
+        this.newConsumers = newConsumers;
+        this.producerChanges = producerChanges;
+    }
+
+    /**
+     * @return unmodifiable list of distributor changes
+     */
+    public List<DistributorChange> getDistributorChanges() {
+        return Collections.unmodifiableList(distributorChanges);
+    }
+
+    /**
+     * @return unmodifiable list of new consumers
+     */
+    public List<Consumer> getNewConsumers() {
+        return Collections.unmodifiableList(newConsumers);
+    }
+
+    /**
+     * @return unmodifiable list of producer changes
+     */
+    public List<ProducerChange> getProducerChanges() {
+        return Collections.unmodifiableList(producerChanges);
+    }
+}
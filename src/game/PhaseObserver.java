@@ -0,0 +1,20 @@
+package game;
+
+/**
+ * Notified around every phase a game plays, in the turn it is played. It is the hook of the
+ * benchmarks (see Game.setPhaseObserver), so that a phase is measured while the game itself
+ * runs it.
+ */
+public interface PhaseObserver {
+    /**
+     * @param turn  turn of the phase
+     * @param phase phase about to be run
+     */
+    void beforePhase(int turn, GamePhase phase);
+
+    /**
+     * @param turn  turn of the phase
+     * @param phase phase that was just run
+     */
+    void afterPhase(int turn, GamePhase phase);
+}
@@ -0,0 +1,50 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a distributor that gets new producers in assignProducers
+ */
+@Name("energy.ProducerAssignment")
+@Label("Producer Assignment")
+@Category({"Energy System", "Game"})
+@Description("A distributor whose producers changed chose new producers")
+@Enabled(false)
+public final class ProducerAssignmentEvent extends Event {
+    @Label("Turn")
+    private int turn;
+
+    @Label("Distributor")
+    private int distributor;
+
+    @Label("Strategy")
+    private String strategy;
+
+    @Label("Producers")
+    @Description("IDs of the chosen producers, in the order of the strategy")
+    private String producers;
+
+    @Label("Producer Count")
+    private int producerCount;
+
+    /**
+     * @param turn          turn of the assignment
+     * @param distributor   ID of the distributor
+     * @param strategy      strategy of the distributor
+     * @param producers     IDs of the chosen producers, separated by commas
+     * @param producerCount number of chosen producers
+     */
+    void set(final int turn, final int distributor, final String strategy,
+             final String producers, final int producerCount) {
+        this.turn = turn;
+        this.distributor = distributor;
+        this.strategy = strategy;
+        this.producers = producers;
+        this.producerCount = producerCount;
+    }
+}
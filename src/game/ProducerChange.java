@@ -0,0 +1,34 @@
+package game;
+
+/**
+ * A monthly change of a producer's energy per distributor
+ */
+public final class ProducerChange {
+    private final int id;
+    private final int energyPerDistributor;
+
+    /**
+     * Constructor for a producer change
+     *
+     * @param id                   ID of the producer that changes
+     * @param energyPerDistributor new energy per distributor
+     */
+    public ProducerChange(final int id, final int energyPerDistributor) {
+        this.id = id;
+        this.energyPerDistributor = energyPerDistributor;
+    }
+
+    /**
+     * @return ID of the producer that changes
+     */
+    public int getID() {
+        return id;
+    }
+
+    /**
+     * @return new energy per distributor
+     */
+    public int getEnergyPerDistributor() {
+        return energyPerDistributor;
+    }
+}
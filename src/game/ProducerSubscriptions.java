@@ -0,0 +1,79 @@
+package game;
+
+import entities.MarkedIndices;
+import observer.Observable;
+import observer.Observer;
+
+/**
+ * Reverse index from every producer (by its dense index) to the distributors that take energy
+ * from it: every producer has its own subject (an Observable) whose observers are its
+ * distributors. The index follows the assignments of GameRules, so a change of a producer
+ * only reaches its own distributors. The producers changed during a month are gathered first
+ * (every producer once), then their distributors are notified together.
+ */
+final class ProducerSubscriptions {
+    private final Observable[] subjects;
+    private final MarkedIndices changedProducers = new MarkedIndices();
+
+    /**
+     * Constructor for the index
+     *
+     * @param producers number of producers in the game
+     */
+    ProducerSubscriptions(final int producers) {
+        subjects = new Observable[producers];
+        for (int i = 0; i < producers; ++i) {
+            subjects[i] = new Observable();
+        }
+    }
+
+    /**
+     * @param producer    dense index of the producer
+     * @param distributor distributor that takes energy from it
+     */
+    void subscribe(final int producer, final Observer distributor) {
+        subjects[producer].addObserver(distributor);
+    }
+
+    /**
+     * @param producer    dense index of the producer
+     * @param distributor distributor that no longer takes energy from it
+     */
+    void unsubscribe(final int producer, final Observer distributor) {
+        subjects[producer].removeObserver(distributor);
+    }
+
+    /**
+     * Marks a producer as changed in the current month (only the first mark counts)
+     *
+     * @param producer dense index of the producer
+     */
+    void markChanged(final int producer) {
+        changedProducers.mark(producer);
+    }
+
+    /**
+     * @return dense indices of the producers changed since the last clear, in the order of
+     * their first change
+     */
+    MarkedIndices getChangedProducers() {
+        return changedProducers;
+    }
+
+    /**
+     * Forgets the changed producers, so that the next month starts with none
+     */
+    void clearChanged() {
+        changedProducers.clear();
+    }
+
+    /**
+     * Notifies the distributors that take energy from a producer
+     *
+     * @param producer   dense index of the producer
+     * @param producerID external ID of the producer, passed to the distributors
+     */
+    void notifySubscribers(final int producer, final int producerID) {
+        subjects[producer].notifyObservers(producerID);
+    }
+}
@@ -0,0 +1,300 @@
+package game;
+
+import entities.Consumer;
+import entities.Distributor;
+import entities.EnergyType;
+import entities.EntityFactory;
+import entities.IntList;
+import entities.Producer;
+import strategies.EnergyChoiceStrategyType;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable copy of the input of a game, kept as primitive arrays. A scenario is read once and
+ * shared by any number of games that run concurrently: every game gets its own entities and
+ * its own monthly updates, created from the arrays when the game needs them.
+ */
+public final class Scenario {
+    private static final int DISTRIBUTOR_CHANGE_FIELDS = 2;
+    private static final int NEW_CONSUMER_FIELDS = 3;
+    private static final int PRODUCER_CHANGE_FIELDS = 2;
+    private final int numberOfTurns;
+    private final int[] consumerIds;
+    private final int[] consumerBudgets;
+    private final int[] consumerIncomes;
+    private final int[] distributorIds;
+    private final int[] contractLengths;
+    private final int[] distributorBudgets;
+    private final int[] infrastructureCosts;
+    private final int[] energyNeeded;
+    private final EnergyChoiceStrategyType[] strategies;
+    private final int[] producerIds;
+    private final EnergyType[] energyTypes;
+    private final int[] maxDistributors;
+    private final double[] prices;
+    private final int[] energyPerDistributor;
+    /*
+    Every month is a flat array of fields: (id, infrastructure cost) for the distributor
+    changes, (id, budget, monthly income) for the new consumers and (id, energy per distributor)
+    for the producer changes
+     */
+    private final int[][] distributorChanges;
+    private final int[][] newConsumers;
+    private final int[][] producerChanges;
+
+    private Scenario(final Game game) {
+        Iterable<Consumer> consumers = game.getInitialConsumers();
+        List<Distributor> distributors = game.getInitialDistributors();
+        List<Producer> producers = game.getInitialProducers();
+        numberOfTurns = game.getNumberOfTurns();
+
+        // The initial consumers may be created while they are iterated, their number is not known
+        IntList ids = new IntList();
+        IntList budgets = new IntList();
+        IntList incomes = new IntList();
+        for (Consumer consumer : consumers) {
+            ids.add(consumer.getID());
+            budgets.add(consumer.getBudget());
+            incomes.add(consumer.getMonthlyIncome());
+        }
+        consumerIds = ids.toArray();
+        consumerBudgets = budgets.toArray();
+        consumerIncomes = incomes.toArray();
+
+        distributorIds = new int[distributors.size()];
+        contractLengths = new int[distributors.size()];
+        distributorBudgets = new int[distributors.size()];
+        infrastructureCosts = new int[distributors.size()];
+        energyNeeded = new int[distributors.size()];
+        strategies = new EnergyChoiceStrategyType[distributors.size()];
+        for (int i = 0; i < distributors.size(); ++i) {
+            Distributor distributor = distributors.get(i);
+            distributorIds[i] = distributor.getID();
+            contractLengths[i] = distributor.getContractLength();
+            distributorBudgets[i] = distributor.getBudget();
+            infrastructureCosts[i] = distributor.getInfrastructureCost();
+            energyNeeded[i] = distributor.getEnergyNeeded();
+            strategies[i] = distributor.getStrategy();
+        }
+
+        producerIds = new int[producers.size()];
+        energyTypes = new EnergyType[producers.size()];
+        maxDistributors = new int[producers.size()];
+        prices = new double[producers.size()];
+        energyPerDistributor = new int[producers.size()];
+        for (int i = 0; i < producers.size(); ++i) {
+            Producer producer = producers.get(i);
+            producerIds[i] = producer.getID();
+            energyTypes[i] = producer.getEnergyType();
+            maxDistributors[i] = producer.getMaxDistributors();
+            prices[i] = producer.getPrice();
+            energyPerDistributor[i] = producer.getEnergyPerDistributor();
+        }
+
+        distributorChanges = new int[numberOfTurns][];
+        newConsumers = new int[numberOfTurns][];
+        producerChanges = new int[numberOfTurns][];
+        Iterator<MonthlyUpdate> updates = game.getMonthlyUpdates();
+        for (int month = 0; month < numberOfTurns && updates.hasNext(); ++month) {
+            MonthlyUpdate update = updates.next();
+            distributorChanges[month] = flattenDistributorChanges(update);
+            newConsumers[month] = flattenNewConsumers(update);
+            producerChanges[month] = flattenProducerChanges(update);
+        }
+    }
+
+    /**
+     * Copies the input of a game that has not started yet. The monthly updates of the game are
+     * consumed, so the game itself can no longer be played.
+     *
+     * @param game game read from an input
+     * @return scenario with the data of the game
+     */
+    public static Scenario of(final Game game) {
+        if (game.getInitialConsumers() == null) {
+            throw new IllegalStateException("The game has already started.");
+        }
+        return new Scenario(game);
+    }
+
+    /**
+     * @return the number of turns of the scenario
+     */
+    public int getNumberOfTurns() {
+        return numberOfTurns;
+    }
+
+    /**
+     * Creates a new game from the scenario, with fresh entities changed by the variant
+     *
+     * @param variant changes applied to the initial distributors and producers
+     * @return game that has not started yet
+     */
+    public Game createGame(final ScenarioVariant variant) {
+        EntityFactory factory = EntityFactory.getInstance();
+
+        List<Distributor> distributors = new ArrayList<>(distributorIds.length);
+        for (int i = 0; i < distributorIds.length; ++i) {
+            distributors.add(factory.createDistributor(distributorIds[i],
+                    variant.contractLength(contractLengths[i]), distributorBudgets[i],
+                    variant.infrastructureCost(infrastructureCosts[i]), energyNeeded[i],
+                    variant.strategy(i, strategies[i])));
+        }
+
+        List<Producer> producers = new ArrayList<>(producerIds.length);
+        for (int i = 0; i < producerIds.length; ++i) {
+            producers.add(factory.createProducer(producerIds[i], energyTypes[i],
+                    maxDistributors[i], variant.price(prices[i]), energyPerDistributor[i]));
+        }
+
+        return new Game(numberOfTurns, monthlyUpdates(variant, 0), initialConsumers(),
+                distributors, producers);
+    }
+
+    /**
+     * Creates a branch of a game of this scenario: a game that continues from the last turn
+     * played by the trunk (see Game.playUntil) with the months changed by the variant. The
+     * branch is forked from the trunk in memory (see Game.fork), so the months before the fork
+     * are played once for all the branches. The trunk can be forked again and played further.
+     *
+     * @param variant changes of the months after the fork point
+     * @param trunk   game of this scenario, played up to the fork point
+     * @return game that continues with the turn after the fork point when it is played
+     * @throws IllegalArgumentException if the variant changes the initial entities or a turn
+     *                                  the trunk already played, which the branch would ignore
+     */
+    public Game createBranch(final ScenarioVariant variant, final Game trunk) {
+        int forkTurn = trunk.getPlayedTurns();
+        if (variant.changesInitialEntities()) {
+            throw new IllegalArgumentException("The branch " + variant + " changes the initial"
+                    + " entities, which the trunk already played.");
+        }
+        if (variant.getFirstChangedTurn() <= forkTurn) {
+            throw new IllegalArgumentException("The branch " + variant + " changes turn "
+                    + variant.getFirstChangedTurn() + ", the trunk already played it (the fork"
+                    + " is at turn " + forkTurn + ").");
+        }
+        return trunk.fork(monthlyUpdates(variant, Math.max(forkTurn, 0)));
+    }
+
+    /**
+     * @return iterable that creates the initial consumers one at a time, while the store of the
+     * game takes them over
+     */
+    private Iterable<Consumer> initialConsumers() {
+        return () -> new Iterator<Consumer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < consumerIds.length;
+            }
+
+            @Override
+            public Consumer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Consumer consumer = EntityFactory.getInstance().createConsumer(consumerIds[next],
+                        consumerBudgets[next], consumerIncomes[next]);
+                ++next;
+                return consumer;
+            }
+        };
+    }
+
+    /**
+     * @param variant    changes added to the months
+     * @param firstMonth position of the first month to be returned
+     * @return iterator that creates the updates of every month when the game reaches it
+     */
+    private Iterator<MonthlyUpdate> monthlyUpdates(final ScenarioVariant variant,
+                                                   final int firstMonth) {
+        return new Iterator<MonthlyUpdate>() {
+            private int month = firstMonth;
+
+            @Override
+            public boolean hasNext() {
+                return month < numberOfTurns && distributorChanges[month] != null;
+            }
+
+            @Override
+            public MonthlyUpdate next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                MonthlyUpdate update = createUpdate(month, variant);
+                ++month;
+                return update;
+            }
+        };
+    }
+
+    /**
+     * @param month   month of the update
+     * @param variant changes added to the months
+     * @return new update of the month, with its own consumers
+     */
+    private MonthlyUpdate createUpdate(final int month, final ScenarioVariant variant) {
+        EntityFactory factory = EntityFactory.getInstance();
+
+        int[] changes = distributorChanges[month];
+        List<DistributorChange> distributorUpdates =
+                new ArrayList<>(changes.length / DISTRIBUTOR_CHANGE_FIELDS);
+        for (int i = 0; i < changes.length; i += DISTRIBUTOR_CHANGE_FIELDS) {
+            distributorUpdates.add(new DistributorChange(changes[i], changes[i + 1]));
+        }
+
+        int[] joined = newConsumers[month];
+        List<Consumer> consumers = new ArrayList<>(joined.length / NEW_CONSUMER_FIELDS);
+        for (int i = 0; i < joined.length; i += NEW_CONSUMER_FIELDS) {
+            consumers.add(factory.createConsumer(joined[i], joined[i + 1], joined[i + 2]));
+        }
+
+        changes = producerChanges[month];
+        List<ProducerChange> producerUpdates =
+                new ArrayList<>(changes.length / PRODUCER_CHANGE_FIELDS);
+        for (int i = 0; i < changes.length; i += PRODUCER_CHANGE_FIELDS) {
+            producerUpdates.add(new ProducerChange(changes[i], changes[i + 1]));
+        }
+
+        // The turn of a month is its position plus one, turn 0 is the initial round
+        variant.addChanges(month + 1, distributorUpdates, producerUpdates);
+        return new MonthlyUpdate(distributorUpdates, consumers, producerUpdates);
+    }
+
+    private static int[] flattenDistributorChanges(final MonthlyUpdate update) {
+        List<DistributorChange> changes = update.getDistributorChanges();
+        int[] fields = new int[changes.size() * DISTRIBUTOR_CHANGE_FIELDS];
+        for (int i = 0; i < changes.size(); ++i) {
+            fields[i * DISTRIBUTOR_CHANGE_FIELDS] = changes.get(i).getID();
+            fields[i * DISTRIBUTOR_CHANGE_FIELDS + 1] = changes.get(i).getInfrastructureCost();
+        }
+        return fields;
+    }
+
+    private static int[] flattenNewConsumers(final MonthlyUpdate update) {
+        List<Consumer> consumers = update.getNewConsumers();
+        int[] fields = new int[consumers.size() * NEW_CONSUMER_FIELDS];
+        for (int i = 0; i < consumers.size(); ++i) {
+            fields[i * NEW_CONSUMER_FIELDS] = consumers.get(i).getID();
+            fields[i * NEW_CONSUMER_FIELDS + 1] = consumers.get(i).getBudget();
+            fields[i * NEW_CONSUMER_FIELDS + 2] = consumers.get(i).getMonthlyIncome();
+        }
+        return fields;
+    }
+
+    private static int[] flattenProducerChanges(final MonthlyUpdate update) {
+        List<ProducerChange> changes = update.getProducerChanges();
+        int[] fields = new int[changes.size() * PRODUCER_CHANGE_FIELDS];
+        for (int i = 0; i < changes.size(); ++i) {
+            fields[i * PRODUCER_CHANGE_FIELDS] = changes.get(i).getID();
+            fields[i * PRODUCER_CHANGE_FIELDS + 1] = changes.get(i).getEnergyPerDistributor();
+        }
+        return fields;
+    }
+}
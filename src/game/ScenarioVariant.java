@@ -0,0 +1,182 @@
+package game;
+
+import strategies.EnergyChoiceStrategyType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Variation of a scenario: the changes applied to its initial distributors and producers
+ * before a game is created from it, and the changes added to its months. A new variant changes
+ * nothing.
+ */
+public final class ScenarioVariant {
+    /*
+    Changes added to the months, as (turn, id, value) triples in the order they were added
+     */
+    private final List<int[]> distributorChanges = new ArrayList<>();
+    private final List<int[]> producerChanges = new ArrayList<>();
+    private double infrastructureFactor = 1;
+    private int contractLength = 0;
+    private EnergyChoiceStrategyType[] strategies = null;
+    private double priceFactor = 1;
+
+    /**
+     * @param infrastructureFactor multiplies the initial infrastructure cost of every
+     *                             distributor (the monthly changes are kept)
+     */
+    public void setInfrastructureFactor(final double infrastructureFactor) {
+        this.infrastructureFactor = infrastructureFactor;
+    }
+
+    /**
+     * @param contractLength contract length of every distributor, or 0 to keep the input's
+     */
+    public void setContractLength(final int contractLength) {
+        this.contractLength = contractLength;
+    }
+
+    /**
+     * @param strategies strategies given to the distributors in turns (the first distributor
+     *                   gets the first one, and so on), or null to keep the input's
+     */
+    public void setStrategies(final EnergyChoiceStrategyType[] strategies) {
+        this.strategies = strategies == null ? null : strategies.clone();
+    }
+
+    /**
+     * @param priceFactor multiplies the price per KW of every producer
+     */
+    public void setPriceFactor(final double priceFactor) {
+        this.priceFactor = priceFactor;
+    }
+
+    /**
+     * Changes the infrastructure cost of a distributor in a month, after the changes of the
+     * input (so this one is kept if the input changes the same distributor)
+     *
+     * @param turn               turn of the change (month 1 is the first month)
+     * @param id                 ID of the distributor
+     * @param infrastructureCost new infrastructure cost
+     */
+    public void addDistributorChange(final int turn, final int id,
+                                     final int infrastructureCost) {
+        distributorChanges.add(new int[] {turn, id, infrastructureCost});
+    }
+
+    /**
+     * Changes the energy per distributor of a producer in a month, after the changes of the
+     * input (so this one is kept if the input changes the same producer)
+     *
+     * @param turn                 turn of the change (month 1 is the first month)
+     * @param id                   ID of the producer
+     * @param energyPerDistributor new energy per distributor
+     */
+    public void addProducerChange(final int turn, final int id,
+                                  final int energyPerDistributor) {
+        producerChanges.add(new int[] {turn, id, energyPerDistributor});
+    }
+
+    /**
+     * @return true if the variant changes the initial distributors or producers, otherwise
+     * false
+     */
+    boolean changesInitialEntities() {
+        return infrastructureFactor != 1 || contractLength > 0 || strategies != null
+                || priceFactor != 1;
+    }
+
+    /**
+     * @return the first turn with a change added to it, or Integer.MAX_VALUE if there is none
+     */
+    int getFirstChangedTurn() {
+        int first = Integer.MAX_VALUE;
+        for (int[] change : distributorChanges) {
+            first = Math.min(first, change[0]);
+        }
+        for (int[] change : producerChanges) {
+            first = Math.min(first, change[0]);
+        }
+        return first;
+    }
+
+    /**
+     * Appends the changes added to a month to the changes of the input
+     *
+     * @param turn         turn of the month
+     * @param distributors changes of the distributors in the month
+     * @param producers    changes of the producers in the month
+     */
+    void addChanges(final int turn, final List<DistributorChange> distributors,
+                    final List<ProducerChange> producers) {
+        for (int[] change : distributorChanges) {
+            if (change[0] == turn) {
+                distributors.add(new DistributorChange(change[1], change[2]));
+            }
+        }
+        for (int[] change : producerChanges) {
+            if (change[0] == turn) {
+                producers.add(new ProducerChange(change[1], change[2]));
+            }
+        }
+    }
+
+    /**
+     * @param cost initial infrastructure cost of a distributor in the input
+     * @return the cost in this variant
+     */
+    int infrastructureCost(final int cost) {
+        return (int) Math.round(cost * infrastructureFactor);
+    }
+
+    /**
+     * @param length contract length of a distributor in the input
+     * @return the contract length in this variant
+     */
+    int contractLength(final int length) {
+        return contractLength > 0 ? contractLength : length;
+    }
+
+    /**
+     * @param position position of the distributor in the input
+     * @param strategy strategy of the distributor in the input
+     * @return the strategy in this variant
+     */
+    EnergyChoiceStrategyType strategy(final int position,
+                                      final EnergyChoiceStrategyType strategy) {
+        return strategies != null ? strategies[position % strategies.length] : strategy;
+    }
+
+    /**
+     * @param price price per KW of a producer in the input
+     * @return the price in this variant
+     */
+    double price(final double price) {
+        return price * priceFactor;
+    }
+
+    /**
+     * @return short description of the variant, used as its name in reports
+     */
+    @Override
+    public String toString() {
+        return "infrastructure=" + infrastructureFactor
+                + " contractLength=" + (contractLength > 0 ? contractLength : "input")
+                + " strategies=" + (strategies == null ? "input" : Arrays.stream(strategies)
+                .map(Enum::name).collect(Collectors.joining("/")))
+                + " price=" + priceFactor
+                + describeChanges(" distributor ", distributorChanges)
+                + describeChanges(" producer ", producerChanges);
+    }
+
+    private static String describeChanges(final String prefix, final List<int[]> changes) {
+        StringBuilder description = new StringBuilder();
+        for (int[] change : changes) {
+            description.append(prefix).append(change[1]).append('@').append(change[0])
+                    .append('=').append(change[2]);
+        }
+        return description.toString();
+    }
+}
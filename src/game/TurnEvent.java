@@ -0,0 +1,45 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event that spans one turn of the game, from the monthly update to the
+ * assignment of the producers. Turn 0 is the initial round.
+ */
+@Name("energy.Turn")
+@Label("Turn")
+@Category({"Energy System", "Game"})
+@Description("One turn of the game")
+@Enabled(false)
+public final class TurnEvent extends Event {
+    @Label("Turn")
+    private final int turn;
+
+    @Label("Active Consumers")
+    @Description("Consumers in the store, bankrupt ones included")
+    private int consumers;
+
+    @Label("Active Distributors")
+    private int distributors;
+
+    /**
+     * @param turn turn of the game
+     */
+    TurnEvent(final int turn) {
+        this.turn = turn;
+    }
+
+    /**
+     * @param consumers    consumers in the store at the end of the turn
+     * @param distributors distributors still in the game at the end of the turn
+     */
+    void setPlayers(final int consumers, final int distributors) {
+        this.consumers = consumers;
+        this.distributors = distributors;
+    }
+}
@@ -0,0 +1,129 @@
+package snapshot;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary input of a snapshot written by SnapshotOutput. The file is read from a FileChannel
+ * into a direct buffer that is refilled when it runs out of values.
+ */
+public final class SnapshotInput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+            ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Constructor for SnapshotInput
+     *
+     * @param path file to read from
+     * @throws IOException in case of failure when opening the file
+     */
+    public SnapshotInput(final Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.limit(0);
+    }
+
+    /**
+     * @return the next value
+     * @throws IOException in case of failure when reading or at the end of the file
+     */
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return buffer.get();
+    }
+
+    /**
+     * @return the next value
+     * @throws IOException in case of failure when reading or at the end of the file
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * @return the next value
+     * @throws IOException in case of failure when reading or at the end of the file
+     */
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    /**
+     * @return the next value
+     * @throws IOException in case of failure when reading or at the end of the file
+     */
+    public double readDouble() throws IOException {
+        require(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads an array written by SnapshotOutput.writeInts
+     *
+     * @param length      number of values to be read
+     * @param minCapacity minimum length of the returned array
+     * @return array that starts with the values read
+     * @throws IOException in case of failure when reading or at the end of the file
+     */
+    public int[] readInts(final int length, final int minCapacity) throws IOException {
+        int[] values = new int[Math.max(length, minCapacity)];
+        int read = 0;
+        while (read < length) {
+            require(Integer.BYTES);
+            int chunk = Math.min(length - read, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().get(values, read, chunk);
+            buffer.position(buffer.position() + chunk * Integer.BYTES);
+            read += chunk;
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array written by SnapshotOutput.writeBytes
+     *
+     * @param length      number of values to be read
+     * @param minCapacity minimum length of the returned array
+     * @return array that starts with the values read
+     * @throws IOException in case of failure when reading or at the end of the file
+     */
+    public byte[] readBytes(final int length, final int minCapacity) throws IOException {
+        byte[] values = new byte[Math.max(length, minCapacity)];
+        int read = 0;
+        while (read < length) {
+            require(Byte.BYTES);
+            int chunk = Math.min(length - read, buffer.remaining());
+            buffer.get(values, read, chunk);
+            read += chunk;
+        }
+        return values;
+    }
+
+    /**
+     * @throws IOException in case of failure when closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void require(final int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated snapshot.");
+            }
+        }
+        buffer.flip();
+    }
+}
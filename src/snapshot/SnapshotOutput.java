@@ -0,0 +1,152 @@
+package snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary output of a snapshot. The values are gathered in a direct buffer and written to a
+ * FileChannel when the buffer is full; arrays of ints are copied in bulk through a view of the
+ * buffer.
+ */
+public final class SnapshotOutput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+            ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Constructor for SnapshotOutput
+     *
+     * @param path file to write to (it is replaced)
+     * @throws IOException in case of failure when opening the file
+     */
+    public SnapshotOutput(final Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * @param value to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeByte(final byte value) throws IOException {
+        ensure(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    /**
+     * @param value to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeBoolean(final boolean value) throws IOException {
+        writeByte(value ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * @param value to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeInt(final int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    /**
+     * @param value to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeDouble(final double value) throws IOException {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * @param value to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeLong(final long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * @return offset in the file of the next value to be written
+     * @throws IOException in case of failure when querying the file
+     */
+    public long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    /**
+     * Writes the first values of the array (the length is not written, the reader has to know
+     * it)
+     *
+     * @param values array to be written
+     * @param length number of values to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeInts(final int[] values, final int length) throws IOException {
+        int written = 0;
+        while (written < length) {
+            ensure(Integer.BYTES);
+            int chunk = Math.min(length - written, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, written, chunk);
+            buffer.position(buffer.position() + chunk * Integer.BYTES);
+            written += chunk;
+        }
+    }
+
+    /**
+     * Writes the first values of the array (the length is not written, the reader has to know
+     * it)
+     *
+     * @param values array to be written
+     * @param length number of values to be written
+     * @throws IOException in case of failure when writing
+     */
+    public void writeBytes(final byte[] values, final int length) throws IOException {
+        int written = 0;
+        while (written < length) {
+            ensure(Byte.BYTES);
+            int chunk = Math.min(length - written, buffer.remaining());
+            buffer.put(values, written, chunk);
+            written += chunk;
+        }
+    }
+
+    /**
+     * Writes the remaining values, forces them to the disk and closes the file. The values are
+     * on the disk before the file is renamed over a previous snapshot, so a crash after the
+     * rename never leaves a snapshot whose content was lost.
+     *
+     * @throws IOException in case of failure when writing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensure(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,8 +1,17 @@
 package strategies;
 
+import entities.Producer;
+
+import java.util.Comparator;
+
 public interface EnergyChoiceStrategy {
     /**
      * Method used for sorting the producers
      */
     void sortProducersByStrategy();
+
+    /**
+     * @return the order in which the strategy prefers the producers
+     */
+    Comparator<Producer> getComparator();
 }
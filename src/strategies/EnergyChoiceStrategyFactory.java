@@ -5,7 +5,7 @@ import entities.Producer;
 import java.util.List;
 
 public final class EnergyChoiceStrategyFactory {
-    private static EnergyChoiceStrategyFactory instance = null;
+    private static volatile EnergyChoiceStrategyFactory instance = null;
 
     private EnergyChoiceStrategyFactory() {
     }
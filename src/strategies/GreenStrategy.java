@@ -6,6 +6,12 @@ import java.util.Comparator;
 import java.util.List;
 
 public class GreenStrategy implements EnergyChoiceStrategy {
+    private static final Comparator<Producer> GREEN_SORT =
+            Comparator.comparing(Producer::isRenewable, Comparator.reverseOrder())
+                    .thenComparing(Producer::getPrice)
+                    .thenComparing(Producer::getEnergyPerDistributor,
+                            Comparator.reverseOrder())
+                    .thenComparing(Producer::getID);
     private final List<Producer> producers;
 
     /**
@@ -22,12 +28,14 @@ public class GreenStrategy implements EnergyChoiceStrategy {
      */
     @Override
     public void sortProducersByStrategy() {
-        Comparator<Producer> greenSort =
-                Comparator.comparing(Producer::isRenewable, Comparator.reverseOrder())
-                        .thenComparing(Producer::getPrice)
-                        .thenComparing(Producer::getEnergyPerDistributor,
-                                Comparator.reverseOrder())
-                        .thenComparing(Producer::getID);
-        producers.sort(greenSort);
+        producers.sort(GREEN_SORT);
+    }
+
+    /**
+     * @return comparator used for sorting the producers
+     */
+    @Override
+    public Comparator<Producer> getComparator() {
+        return GREEN_SORT;
     }
 }
@@ -6,6 +6,11 @@ import java.util.Comparator;
 import java.util.List;
 
 public class PriceStrategy implements EnergyChoiceStrategy {
+    private static final Comparator<Producer> PRICE_SORT =
+            Comparator.comparing(Producer::getPrice)
+                    .thenComparing(Producer::getEnergyPerDistributor,
+                            Comparator.reverseOrder())
+                    .thenComparing(Producer::getID);
     private final List<Producer> producers;
 
     /**
@@ -22,11 +27,14 @@ public class PriceStrategy implements EnergyChoiceStrategy {
      */
     @Override
     public void sortProducersByStrategy() {
-        Comparator<Producer> priceSort =
-                Comparator.comparing(Producer::getPrice)
-                        .thenComparing(Producer::getEnergyPerDistributor,
-                                Comparator.reverseOrder())
-                        .thenComparing(Producer::getID);
-        producers.sort(priceSort);
+        producers.sort(PRICE_SORT);
+    }
+
+    /**
+     * @return comparator used for sorting the producers
+     */
+    @Override
+    public Comparator<Producer> getComparator() {
+        return PRICE_SORT;
     }
 }
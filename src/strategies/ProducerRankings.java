@@ -0,0 +1,147 @@
+package strategies;
+
+import entities.Producer;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps the producers permanently ordered by every strategy type, so that a distributor can walk
+ * the ranking of its strategy without sorting the producers again. Whenever a sort key of a
+ * producer changes, only that producer is moved inside each ranking (O(log P)).
+ *
+ * Every ranking has a companion that only holds the producers which can still take a
+ * distributor in the current month. The distributors are assigned and released through the
+ * rankings, which move a producer in or out of the companions when it fills up or gets room
+ * again, so a distributor walks only the producers it can pick instead of skipping the full
+ * ones at the top of the ranking.
+ */
+public final class ProducerRankings {
+    private final Map<EnergyChoiceStrategyType, NavigableSet<Producer>> rankings =
+            new EnumMap<>(EnergyChoiceStrategyType.class);
+    private final Map<EnergyChoiceStrategyType, NavigableSet<Producer>> available =
+            new EnumMap<>(EnergyChoiceStrategyType.class);
+
+    /**
+     * Constructor for the rankings, uses the strategies' comparators so that the order (and the
+     * tie-breaking) is the same as sorting with the strategies
+     *
+     * @param producers initial producers of the game
+     */
+    public ProducerRankings(final List<Producer> producers) {
+        EnergyChoiceStrategyFactory factory = EnergyChoiceStrategyFactory.getInstance();
+
+        for (EnergyChoiceStrategyType type : EnergyChoiceStrategyType.values()) {
+            NavigableSet<Producer> ranking = new TreeSet<>(
+                    factory.createStrategy(type, producers).getComparator());
+            ranking.addAll(producers);
+            rankings.put(type, ranking);
+
+            NavigableSet<Producer> availableRanking = new TreeSet<>(ranking.comparator());
+            for (Producer producer : producers) {
+                if (producer.hasCapacity()) {
+                    availableRanking.add(producer);
+                }
+            }
+            available.put(type, availableRanking);
+        }
+    }
+
+    /**
+     * @param type strategy type
+     * @return unmodifiable view of the producers in the order preferred by the strategy
+     */
+    public NavigableSet<Producer> getRanking(final EnergyChoiceStrategyType type) {
+        return Collections.unmodifiableNavigableSet(rankings.get(type));
+    }
+
+    /**
+     * @param type strategy type
+     * @return the first producer preferred by the strategy that can take a distributor, or
+     * null if all of them are full
+     */
+    public Producer firstAvailable(final EnergyChoiceStrategyType type) {
+        NavigableSet<Producer> ranking = available.get(type);
+        return ranking.isEmpty() ? null : ranking.first();
+    }
+
+    /**
+     * @param type     strategy type
+     * @param producer producer reached by the walk (it may have filled up in the meantime)
+     * @return the next producer preferred by the strategy that can take a distributor, or null
+     * if there is none
+     */
+    public Producer nextAvailable(final EnergyChoiceStrategyType type, final Producer producer) {
+        return available.get(type).higher(producer);
+    }
+
+    /**
+     * Adds a distributor to the current month of a producer and takes the producer out of the
+     * available rankings if it became full
+     *
+     * @param producer      producer that takes the distributor
+     * @param distributorId distributor to be added
+     * @param currentTurn   index of the current turn
+     */
+    public void assign(final Producer producer, final int distributorId, final int currentTurn) {
+        producer.addDistributors(distributorId, currentTurn);
+        if (!producer.hasCapacity()) {
+            for (NavigableSet<Producer> ranking : available.values()) {
+                ranking.remove(producer);
+            }
+        }
+    }
+
+    /**
+     * Removes a distributor from the current month of a producer and puts the producer back in
+     * the available rankings if it has room again
+     *
+     * @param producer      producer that loses the distributor
+     * @param distributorId distributor to be removed
+     * @param currentTurn   index of the current turn
+     */
+    public void release(final Producer producer, final int distributorId,
+                        final int currentTurn) {
+        producer.removeDistributor(distributorId, currentTurn);
+        if (producer.hasCapacity()) {
+            for (NavigableSet<Producer> ranking : available.values()) {
+                ranking.add(producer);
+            }
+        }
+    }
+
+    /**
+     * Changes the energy per distributor of a producer and moves it to its new position in every
+     * ranking
+     *
+     * @param producer             producer that changes
+     * @param energyPerDistributor new energy per distributor
+     */
+    public void updateEnergyPerDistributor(final Producer producer,
+                                           final int energyPerDistributor) {
+        if (producer.getEnergyPerDistributor() == energyPerDistributor) {
+            return;
+        }
+
+        // The producer must be taken out before its sort key changes
+        for (NavigableSet<Producer> ranking : rankings.values()) {
+            ranking.remove(producer);
+        }
+        for (NavigableSet<Producer> ranking : available.values()) {
+            ranking.remove(producer);
+        }
+        producer.setEnergyPerDistributor(energyPerDistributor);
+        for (NavigableSet<Producer> ranking : rankings.values()) {
+            ranking.add(producer);
+        }
+        if (producer.hasCapacity()) {
+            for (NavigableSet<Producer> ranking : available.values()) {
+                ranking.add(producer);
+            }
+        }
+    }
+}
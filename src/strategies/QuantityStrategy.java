@@ -6,6 +6,9 @@ import java.util.Comparator;
 import java.util.List;
 
 public class QuantityStrategy implements EnergyChoiceStrategy {
+    private static final Comparator<Producer> QUANTITY_SORT =
+            Comparator.comparing(Producer::getEnergyPerDistributor, Comparator.reverseOrder())
+                    .thenComparing(Producer::getID);
     private final List<Producer> producers;
 
     /**
@@ -22,9 +25,14 @@ public class QuantityStrategy implements EnergyChoiceStrategy {
      */
     @Override
     public void sortProducersByStrategy() {
-        Comparator<Producer> quantitySort =
-                Comparator.comparing(Producer::getEnergyPerDistributor, Comparator.reverseOrder())
-                        .thenComparing(Producer::getID);
-        producers.sort(quantitySort);
+        producers.sort(QUANTITY_SORT);
+    }
+
+    /**
+     * @return comparator used for sorting the producers
+     */
+    @Override
+    public Comparator<Producer> getComparator() {
+        return QUANTITY_SORT;
     }
 }
@@ -0,0 +1,59 @@
+package checks;
+
+/**
+ * Minimal harness of the focused checks, in the style of the checker's Test: every check is
+ * run by name and reported on one line, a failed expectation ends its check with a message.
+ * finish() exits with a non-zero status if any check failed.
+ */
+public final class Checks {
+    private static int passed = 0;
+    private static int failed = 0;
+
+    private Checks() { }
+
+    /**
+     * Runs one check and prints its result
+     *
+     * @param name  name of the check
+     * @param check the check, throws an AssertionError (see expect) when it fails
+     */
+    public static void run(final String name, final Runnable check) {
+        try {
+            check.run();
+            ++passed;
+            System.out.println("[" + name + "]: ..................... passed");
+        } catch (AssertionError | RuntimeException e) {
+            ++failed;
+            System.out.println("[" + name + "]: ..................... failed: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * @param condition expected to be true
+     * @param message   describes the failure
+     */
+    public static void expect(final boolean condition, final String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * @param expected expected value
+     * @param actual   actual value
+     * @param what     describes the value
+     */
+    public static void expectEquals(final long expected, final long actual,
+                                    final String what) {
+        expect(expected == actual, what + ": expected " + expected + " but was " + actual);
+    }
+
+    /**
+     * Prints the number of checks that passed and exits with status 1 if any failed
+     */
+    public static void finish() {
+        System.out.println("Passed: " + passed + "/" + (passed + failed));
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,109 @@
+package entities;
+
+import checks.Checks;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Focused checks of IdOrder: IDs added in increasing order are appended, the others wait in
+ * the pending buffer and are merged into the order when it is next read, also when the reads
+ * and the out-of-order IDs are interleaved, with the columns on the heap and in a mapped file.
+ * Usage: IdOrderCheck [seed]
+ */
+public final class IdOrderCheck {
+    private static final int RANDOM_IDS = 20000;
+    private static final int MAX_ID = 1 << 20;
+
+    private IdOrderCheck() { }
+
+    /**
+     * Runs the checks
+     *
+     * @param args optionally the seed of the random IDs
+     */
+    public static void main(final String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        Checks.run("IdOrder increasing", () -> checkOrder(new int[] {1, 2, 5, 9, 40}));
+        Checks.run("IdOrder out of order", () -> checkOrder(new int[] {5, 1, 9, 3, 0, 7}));
+        Checks.run("IdOrder decreasing", () -> checkOrder(new int[] {9, 8, 7, 6, 5, 4, 3}));
+        Checks.run("IdOrder negative", () -> checkOrder(new int[] {2, -1, 0, -7, 4, -3}));
+        Checks.run("IdOrder interleaved reads", IdOrderCheck::checkInterleaved);
+        Checks.run("IdOrder random", () -> checkRandom(seed, HeapColumns.getInstance()));
+        Checks.run("IdOrder random, mapped", () -> checkRandom(seed, new MappedColumns()));
+        Checks.finish();
+    }
+
+    /**
+     * Adds the IDs with increasing dense indices and reads the order once
+     *
+     * @param ids IDs in the order they are added
+     */
+    private static void checkOrder(final int[] ids) {
+        IdOrder order = new IdOrder(HeapColumns.getInstance());
+        Map<Integer, Integer> expected = new TreeMap<>();
+        for (int index = 0; index < ids.length; ++index) {
+            order.add(ids[index], index);
+            expected.put(ids[index], index);
+        }
+        compare(order, expected);
+    }
+
+    /**
+     * Reads the order between the additions: an ID above all the others is appended after a
+     * merge, one below them goes to the pending buffer again
+     */
+    private static void checkInterleaved() {
+        IdOrder order = new IdOrder(HeapColumns.getInstance());
+        Map<Integer, Integer> expected = new TreeMap<>();
+        int[][] batches = {{10, 20, 30}, {15, 5}, {40, 50}, {25}, {60, 1, 70}, {35, 45, 0}};
+        int index = 0;
+        for (int[] batch : batches) {
+            for (int id : batch) {
+                order.add(id, index);
+                expected.put(id, index++);
+            }
+            compare(order, expected);
+        }
+    }
+
+    /**
+     * Mostly increasing IDs with some smaller ones, read at random moments
+     *
+     * @param seed    seed of the IDs
+     * @param storage storage of the order's columns
+     */
+    private static void checkRandom(final long seed, final ColumnStorage storage) {
+        Random random = new Random(seed);
+        IdOrder order = new IdOrder(storage);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        int next = 0;
+        for (int index = 0; index < RANDOM_IDS; ++index) {
+            int id;
+            do {
+                id = random.nextInt(4) == 0 ? random.nextInt(MAX_ID) : next++;
+            } while (expected.containsKey(id));
+            order.add(id, index);
+            expected.put(id, index);
+            if (random.nextInt(RANDOM_IDS / 10) == 0) {
+                compare(order, expected);
+            }
+        }
+        compare(order, expected);
+    }
+
+    /**
+     * @param order    order to be checked
+     * @param expected dense index of every ID, in the order of the IDs
+     */
+    private static void compare(final IdOrder order, final Map<Integer, Integer> expected) {
+        Checks.expectEquals(expected.size(), order.size(), "size");
+        int position = 0;
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Checks.expectEquals(entry.getValue(), order.get(position),
+                    "index at position " + position + " (ID " + entry.getKey() + ")");
+            ++position;
+        }
+    }
+}
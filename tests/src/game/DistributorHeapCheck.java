@@ -0,0 +1,135 @@
+package game;
+
+import checks.Checks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Focused checks of DistributorHeap: the sift of updated costs in both directions, removals
+ * from any position and the ties between equal costs, which go to the lowest dense index.
+ * Usage: DistributorHeapCheck [seed]
+ */
+public final class DistributorHeapCheck {
+    private static final int DISTRIBUTORS = 64;
+    private static final int OPERATIONS = 100000;
+    private static final int MAX_COST = 20;
+    private static final int ABSENT = -1;
+
+    private DistributorHeapCheck() { }
+
+    /**
+     * Runs the checks
+     *
+     * @param args optionally the seed of the random operations
+     */
+    public static void main(final String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        Checks.run("DistributorHeap ties", DistributorHeapCheck::checkTies);
+        Checks.run("DistributorHeap update", DistributorHeapCheck::checkUpdate);
+        Checks.run("DistributorHeap remove", DistributorHeapCheck::checkRemove);
+        Checks.run("DistributorHeap random", () -> checkRandom(seed));
+        Checks.finish();
+    }
+
+    /**
+     * Equal costs are ordered by dense index, whatever the order they were added in
+     */
+    private static void checkTies() {
+        DistributorHeap heap = new DistributorHeap();
+        Checks.expectEquals(ABSENT, heap.peek(), "top of the empty heap");
+        heap.update(3, 10);
+        heap.update(5, 10);
+        heap.update(1, 10);
+        Checks.expectEquals(1, heap.peek(), "top of three equal costs");
+        heap.update(0, 10);
+        Checks.expectEquals(0, heap.peek(), "top after a lower index with the same cost");
+        heap.remove(0);
+        heap.remove(1);
+        Checks.expectEquals(3, heap.peek(), "top after removing the lowest indices");
+        // Raising the top to the cost of the others leaves it on top (it has the lowest index)
+        heap.update(3, 9);
+        heap.update(3, 10);
+        Checks.expectEquals(3, heap.peek(), "top raised to the same cost");
+    }
+
+    /**
+     * A lowered cost is sifted up to the top, a raised cost is sifted down below the others
+     */
+    private static void checkUpdate() {
+        DistributorHeap heap = new DistributorHeap();
+        for (int i = 0; i < DISTRIBUTORS; ++i) {
+            heap.update(i, MAX_COST + i);
+        }
+        Checks.expectEquals(0, heap.peek(), "top of increasing costs");
+        heap.update(DISTRIBUTORS - 1, 0);
+        Checks.expectEquals(DISTRIBUTORS - 1, heap.peek(), "top after lowering the last one");
+        heap.update(DISTRIBUTORS - 1, 2 * MAX_COST + DISTRIBUTORS);
+        Checks.expectEquals(0, heap.peek(), "top after raising it above all the others");
+        heap.update(0, MAX_COST + 1);
+        Checks.expectEquals(0, heap.peek(), "top raised to the cost of the next one");
+        heap.update(0, MAX_COST + 2);
+        Checks.expectEquals(1, heap.peek(), "top raised above the next one");
+    }
+
+    /**
+     * Removing the top, the last position or an inner position keeps the order, removing a
+     * distributor that is not in the heap changes nothing
+     */
+    private static void checkRemove() {
+        DistributorHeap heap = new DistributorHeap();
+        for (int i = 0; i < DISTRIBUTORS; ++i) {
+            heap.update(i, DISTRIBUTORS - i);
+        }
+        heap.remove(DISTRIBUTORS - 1);
+        Checks.expectEquals(DISTRIBUTORS - 2, heap.peek(), "top after removing the top");
+        heap.remove(0);
+        heap.remove(DISTRIBUTORS / 2);
+        Checks.expect(!heap.contains(DISTRIBUTORS / 2), "a removed distributor is still in");
+        heap.remove(DISTRIBUTORS / 2);
+        heap.remove(DISTRIBUTORS + 1);
+        Checks.expectEquals(DISTRIBUTORS - 2, heap.peek(), "top after removing absent ones");
+        for (int expected = DISTRIBUTORS - 2; expected > 0; --expected) {
+            if (expected == DISTRIBUTORS / 2) {
+                continue;
+            }
+            Checks.expectEquals(expected, heap.peek(), "top while emptying the heap");
+            heap.remove(expected);
+        }
+        Checks.expectEquals(ABSENT, heap.peek(), "top of the emptied heap");
+    }
+
+    /**
+     * Random updates and removals on a few costs (so that ties are frequent), compared after
+     * every operation with a linear scan for the lowest (cost, index)
+     *
+     * @param seed seed of the operations
+     */
+    private static void checkRandom(final long seed) {
+        Random random = new Random(seed);
+        DistributorHeap heap = new DistributorHeap();
+        int[] costs = new int[DISTRIBUTORS];
+        Arrays.fill(costs, ABSENT);
+        for (int operation = 0; operation < OPERATIONS; ++operation) {
+            int distributor = random.nextInt(DISTRIBUTORS);
+            if (random.nextInt(4) == 0) {
+                heap.remove(distributor);
+                costs[distributor] = ABSENT;
+            } else {
+                int cost = random.nextInt(MAX_COST);
+                heap.update(distributor, cost);
+                costs[distributor] = cost;
+            }
+
+            int expected = ABSENT;
+            for (int i = 0; i < DISTRIBUTORS; ++i) {
+                if (costs[i] != ABSENT && (expected == ABSENT || costs[i] < costs[expected])) {
+                    expected = i;
+                }
+            }
+            Checks.expectEquals(expected, heap.peek(), "top after operation " + operation);
+            Checks.expect(heap.contains(distributor) == (costs[distributor] != ABSENT),
+                    "membership of " + distributor + " after operation " + operation);
+        }
+    }
+}
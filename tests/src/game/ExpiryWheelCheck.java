@@ -0,0 +1,225 @@
+package game;
+
+import checks.Checks;
+import entities.ColumnStorage;
+import entities.ConsumerStoreFactory;
+import entities.ConsumerStoreType;
+import entities.IntList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Focused checks of ExpiryWheel: contracts must come out in exactly their expiry month, also
+ * when they are placed on the upper levels (64 months and more, 4096 months and more) and are
+ * spread again when the wheel crosses a level boundary, when they lie beyond the span of the
+ * wheel, when a due contract is scheduled again, and after the wheel is forked. The random
+ * schedules are also run with the entries in a mapped file.
+ * Usage: ExpiryWheelCheck [seed]
+ */
+public final class ExpiryWheelCheck {
+    private static final int LEVEL_1 = 64;
+    private static final int LEVEL_2 = 4096;
+    private static final int LEVEL_3 = 262144;
+    private static final int SPAN = 1 << 24;
+    private static final int RANDOM_MONTHS = 20000;
+    private static final int RESCHEDULE_DELAY = 70;
+
+    private ExpiryWheelCheck() { }
+
+    /**
+     * Runs the checks
+     *
+     * @param args optionally the seed of the random schedules
+     */
+    public static void main(final String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        Checks.run("ExpiryWheel level 0", () -> checkBoundaries(0, new int[] {1, 2, 63}));
+        Checks.run("ExpiryWheel level 1 cascade", () -> checkBoundaries(60,
+                new int[] {63, 64, 65, 127, 128, 4095}));
+        Checks.run("ExpiryWheel level 2 cascade", () -> checkBoundaries(4090,
+                new int[] {4095, 4096, 4097, 4160, 8191, 8192, 8193, 262143}));
+        Checks.run("ExpiryWheel level 3 cascade", () -> checkBoundaries(LEVEL_3 - 10,
+                new int[] {LEVEL_3 - 1, LEVEL_3, LEVEL_3 + 1, LEVEL_3 + LEVEL_2,
+                    2 * LEVEL_3 + LEVEL_1 + 1}));
+        Checks.run("ExpiryWheel beyond the span", () -> checkBoundaries(5,
+                new int[] {SPAN - 1, SPAN + 4, SPAN + 5, SPAN + LEVEL_2 + 7}));
+        Checks.run("ExpiryWheel reschedule", ExpiryWheelCheck::checkReschedule);
+        Checks.run("ExpiryWheel random", () -> checkRandom(seed, ConsumerStoreType.TABLE));
+        Checks.run("ExpiryWheel random, mapped",
+                () -> checkRandom(seed, ConsumerStoreType.MAPPED));
+        Checks.run("ExpiryWheel fork", () -> checkFork(seed, ConsumerStoreType.TABLE));
+        Checks.run("ExpiryWheel fork, mapped", () -> checkFork(seed, ConsumerStoreType.MAPPED));
+        Checks.finish();
+    }
+
+    /**
+     * Schedules one contract per expiry from the given month and advances the wheel past the
+     * last one
+     *
+     * @param start    month of the wheel when the contracts are scheduled
+     * @param expiries expiry of every contract, after start
+     */
+    private static void checkBoundaries(final int start, final int[] expiries) {
+        ExpiryWheel wheel = new ExpiryWheel(start, storage(ConsumerStoreType.TABLE));
+        Map<Integer, List<Long>> expected = new HashMap<>();
+        int last = start;
+        for (int i = 0; i < expiries.length; ++i) {
+            schedule(wheel, expected, i, expiries[i]);
+            last = Math.max(last, expiries[i]);
+        }
+        while (wheel.getMonth() < last + 1) {
+            advance(wheel, expected);
+        }
+        Checks.expect(expected.isEmpty(), "contracts never returned: " + expected);
+    }
+
+    /**
+     * Every due contract is scheduled again RESCHEDULE_DELAY months later (across the level 1
+     * boundary) until it has come out a few times
+     */
+    private static void checkReschedule() {
+        ExpiryWheel wheel = new ExpiryWheel(0, storage(ConsumerStoreType.TABLE));
+        Map<Integer, List<Long>> expected = new HashMap<>();
+        int[] returns = new int[4];
+        for (int contract = 0; contract < returns.length; ++contract) {
+            schedule(wheel, expected, contract, 1 + contract * LEVEL_1 / 2);
+        }
+        int months = (returns.length + 2) * RESCHEDULE_DELAY + returns.length * LEVEL_1;
+        for (int month = 0; month < months; ++month) {
+            IntList due = advance(wheel, expected);
+            for (int i = 0; i < due.size(); i += 2) {
+                int contract = due.get(i + 1);
+                if (++returns[contract] < returns.length) {
+                    schedule(wheel, expected, contract, wheel.getMonth() + RESCHEDULE_DELAY);
+                }
+            }
+        }
+        for (int contract = 0; contract < returns.length; ++contract) {
+            Checks.expectEquals(returns.length, returns[contract],
+                    "returns of contract " + contract);
+        }
+        Checks.expect(expected.isEmpty(), "contracts never returned: " + expected);
+    }
+
+    /**
+     * Random expiries on every level from a random start, with a third of the due contracts
+     * scheduled again
+     *
+     * @param seed seed of the schedules
+     * @param type store type whose storage holds the entries
+     */
+    private static void checkRandom(final long seed, final ConsumerStoreType type) {
+        Random random = new Random(seed);
+        ExpiryWheel wheel = new ExpiryWheel(random.nextInt(LEVEL_2), storage(type));
+        Map<Integer, List<Long>> expected = new HashMap<>();
+        int contract = 0;
+        for (int month = 0; month < RANDOM_MONTHS; ++month) {
+            int scheduled = random.nextInt(4);
+            for (int i = 0; i < scheduled; ++i) {
+                int[] ranges = {LEVEL_1, LEVEL_2, 2 * RANDOM_MONTHS};
+                int expiry = wheel.getMonth() + 1 + random.nextInt(ranges[random.nextInt(3)]);
+                schedule(wheel, expected, contract++, expiry);
+            }
+            IntList due = advance(wheel, expected);
+            for (int i = 0; i < due.size(); i += 2) {
+                if (random.nextInt(3) == 0) {
+                    schedule(wheel, expected, due.get(i + 1),
+                            wheel.getMonth() + 1 + random.nextInt(LEVEL_2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Random schedules on a wheel that is forked halfway: afterwards the trunk and the branch
+     * follow different schedules (and reuse the freed entries they share), and each must return
+     * exactly its own contracts
+     *
+     * @param seed seed of the schedules
+     * @param type store type whose storage holds the entries
+     */
+    private static void checkFork(final long seed, final ConsumerStoreType type) {
+        Random random = new Random(seed);
+        ExpiryWheel trunk = new ExpiryWheel(random.nextInt(LEVEL_2), storage(type));
+        Map<Integer, List<Long>> trunkExpected = new HashMap<>();
+        int[] contract = {0};
+        for (int month = 0; month < RANDOM_MONTHS / 2; ++month) {
+            scheduleRandom(random, trunk, trunkExpected, contract);
+            advance(trunk, trunkExpected);
+        }
+
+        ExpiryWheel branch = trunk.fork();
+        Map<Integer, List<Long>> branchExpected = new HashMap<>();
+        trunkExpected.forEach((month, pairs) -> branchExpected.put(month, new ArrayList<>(pairs)));
+        Random branchRandom = new Random(seed + 1);
+        for (int month = 0; month < RANDOM_MONTHS / 2; ++month) {
+            scheduleRandom(random, trunk, trunkExpected, contract);
+            advance(trunk, trunkExpected);
+            scheduleRandom(branchRandom, branch, branchExpected, contract);
+            advance(branch, branchExpected);
+        }
+    }
+
+    private static void scheduleRandom(final Random random, final ExpiryWheel wheel,
+                                       final Map<Integer, List<Long>> expected,
+                                       final int[] contract) {
+        int scheduled = random.nextInt(4);
+        for (int i = 0; i < scheduled; ++i) {
+            int expiry = wheel.getMonth() + 1 + random.nextInt(random.nextBoolean() ? LEVEL_1
+                    : LEVEL_2);
+            schedule(wheel, expected, contract[0]++, expiry);
+        }
+    }
+
+    /**
+     * @param type store type of a game
+     * @return storage of the entries of the game's wheel (the one of its ledger)
+     */
+    private static ColumnStorage storage(final ConsumerStoreType type) {
+        return ConsumerStoreFactory.getInstance().createLedger(type).getStorage();
+    }
+
+    private static void schedule(final ExpiryWheel wheel, final Map<Integer, List<Long>> expected,
+                                 final int contract, final int expiry) {
+        // The consumer of every contract is its handle shifted, so the pairs can be told apart
+        wheel.schedule(contract + 1, contract, expiry);
+        expected.computeIfAbsent(expiry, month -> new ArrayList<>())
+                .add(pair(contract + 1, contract));
+    }
+
+    /**
+     * Advances the wheel and compares the due pairs with the contracts expected in the month
+     *
+     * @param wheel    wheel to be advanced
+     * @param expected contracts by expiry month, the ones of the month are removed
+     * @return (consumer, contract) pairs of the entries returned by the wheel
+     */
+    private static IntList advance(final ExpiryWheel wheel,
+                                   final Map<Integer, List<Long>> expected) {
+        IntList due = new IntList();
+        List<Long> actual = new ArrayList<>();
+        for (int entry = wheel.advance(); entry != ExpiryWheel.NONE; entry = wheel.next(entry)) {
+            due.add(wheel.getConsumer(entry));
+            due.add(wheel.getContract(entry));
+            actual.add(pair(wheel.getConsumer(entry), wheel.getContract(entry)));
+        }
+        List<Long> wanted = expected.remove(wheel.getMonth());
+        if (wanted == null) {
+            wanted = new ArrayList<>();
+        }
+        Collections.sort(actual);
+        Collections.sort(wanted);
+        Checks.expect(actual.equals(wanted), "month " + wheel.getMonth() + ": expected "
+                + wanted + " but was " + actual);
+        return due;
+    }
+
+    private static long pair(final int consumer, final int contract) {
+        return ((long) consumer << Integer.SIZE) | contract;
+    }
+}